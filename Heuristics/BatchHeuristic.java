@@ -0,0 +1,198 @@
+/**
+ * BatchHeuristic.java
+ * Copyright (C) 2020 Roman S <romanstrah@mail.ru>
+ *
+ * TheFifteenPuzzleSolver is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * TheFifteenPuzzleSolver is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package Heuristics;
+
+import static java.lang.Math.abs;
+
+/**
+ * Пакетное вычисление эвристических оценок для множества упакованных
+ * игровых полей (4 бита на ячейку, не более 16 ячеек) за один вызов.
+ * Если подключен модуль jdk.incubator.vector (ключ
+ * --add-modules jdk.incubator.vector при компиляции и запуске), поля
+ * обрабатываются векторами (SSE/AVX2/AVX-512) через Vector API; иначе
+ * пакет обрабатывается скалярным циклом. Деление на размерность
+ * заменено умножением и сдвигом, поэтому оба варианта обходятся без
+ * деления. Решатели не используют пакетные оценки сами: это отдельная
+ * точка входа для измерений и пересчета оценок фронта поиска.
+ */
+public final class BatchHeuristic {
+
+	/** Количество бит на одну ячейку в упакованном игровом поле. */
+	public static final int BITS_PER_CELL = 4;
+
+	/** Маска одной ячейки упакованного игрового поля. */
+	static final long CELL_MASK = (1L << BITS_PER_CELL) - 1;
+
+	/** Сдвиг, заменяющий деление на размерность (см. divisionMultiplier). */
+	static final int DIVISION_SHIFT = 6;
+
+	/** Максимальное количество ячеек в упакованном игровом поле. */
+	private static final int MAX_SIZE = Long.SIZE / BITS_PER_CELL;
+
+	/** Подключен ли модуль jdk.incubator.vector. */
+	private static final boolean IS_VECTOR_API_AVAILABLE = ModuleLayer.boot()
+			.findModule("jdk.incubator.vector").isPresent();
+
+	private BatchHeuristic() {}
+
+	/**
+	 * Метод сообщает, используется ли Vector API.
+	 * Возвращает:
+	 * @return true - поля обрабатываются векторами;
+	 *         false - только скалярным циклом.
+	 */
+	public static boolean isVectorized() {
+		return IS_VECTOR_API_AVAILABLE;
+	}
+
+	/**
+	 * Метод вычисляет множитель, заменяющий деление на размерность:
+	 * (x * multiplier) >> DIVISION_SHIFT равно x / dimension для всех
+	 * индексов ячеек x от 0 до 14 и размерностей от 2 до 4.
+	 * Входной параметр:
+	 * @param dimension - размерность игрового поля.
+	 * Возвращает:
+	 * @return множитель.
+	 */
+	static int divisionMultiplier(int dimension) {
+		return ((1 << DIVISION_SHIFT) + dimension - 1) / dimension;
+	}
+
+	/**
+	 * Метод вычисляет манхэттенское расстояние для пакета игровых полей.
+	 * Входные параметры:
+	 * @param boards - упакованные игровые поля;
+	 * @param count - количество полей в пакете;
+	 * @param dimension - размерность игровых полей;
+	 * @param scores - массив для записи оценок (не короче count).
+	 */
+	public static void manhattan(long[] boards, int count, int dimension,
+			int[] scores) throws IllegalArgumentException {
+		checkArguments(boards, count, dimension, scores);
+
+		int from = IS_VECTOR_API_AVAILABLE
+				? VectorBatchHeuristic.manhattan(boards, count, dimension, scores)
+				: 0;
+
+		manhattanScalar(boards, from, count, dimension, scores);
+	}
+
+	/**
+	 * Скалярный вариант вычисления манхэттенского расстояния для части
+	 * пакета.
+	 * Входные параметры:
+	 * @param boards - упакованные игровые поля;
+	 * @param from - индекс первого поля;
+	 * @param to - индекс за последним полем;
+	 * @param dimension - размерность игровых полей;
+	 * @param scores - массив для записи оценок.
+	 */
+	static void manhattanScalar(long[] boards, int from, int to,
+			int dimension, int[] scores) {
+		int size = dimension * dimension;
+		int multiplier = divisionMultiplier(dimension);
+
+		for (int b = from; b < to; b++) {
+			long board = boards[b];
+			int sum = 0;
+
+			for (int cell = 0; cell < size; cell++) {
+				int tile = (int) ((board >>> (cell * BITS_PER_CELL))
+						& CELL_MASK);
+				int goal = tile - 1;
+				int goalRow = (goal * multiplier) >> DIVISION_SHIFT;
+				int goalColumn = goal - goalRow * dimension;
+				int row = (cell * multiplier) >> DIVISION_SHIFT;
+				int column = cell - row * dimension;
+
+				if (tile != 0) {
+					sum += abs(goalRow - row) + abs(goalColumn - column);
+				}
+			}
+
+			scores[b] = sum;
+		}
+	}
+
+	/**
+	 * Метод подсчитывает элементы, находящиеся не на "своих" местах,
+	 * для пакета игровых полей. Пустая ячейка не учитывается.
+	 * Входные параметры:
+	 * @param boards - упакованные игровые поля;
+	 * @param count - количество полей в пакете;
+	 * @param dimension - размерность игровых полей;
+	 * @param scores - массив для записи оценок (не короче count).
+	 */
+	public static void misplacedTiles(long[] boards, int count, int dimension,
+			int[] scores) throws IllegalArgumentException {
+		checkArguments(boards, count, dimension, scores);
+
+		int from = IS_VECTOR_API_AVAILABLE
+				? VectorBatchHeuristic.misplacedTiles(boards, count, dimension,
+						scores)
+				: 0;
+
+		misplacedTilesScalar(boards, from, count, dimension, scores);
+	}
+
+	/**
+	 * Скалярный вариант подсчета элементов не на "своих" местах для части
+	 * пакета.
+	 * Входные параметры:
+	 * @param boards - упакованные игровые поля;
+	 * @param from - индекс первого поля;
+	 * @param to - индекс за последним полем;
+	 * @param dimension - размерность игровых полей;
+	 * @param scores - массив для записи оценок.
+	 */
+	static void misplacedTilesScalar(long[] boards, int from, int to,
+			int dimension, int[] scores) {
+		int size = dimension * dimension;
+
+		for (int b = from; b < to; b++) {
+			long board = boards[b];
+			int sum = 0;
+
+			for (int cell = 0; cell < size; cell++) {
+				int tile = (int) ((board >>> (cell * BITS_PER_CELL))
+						& CELL_MASK);
+
+				if ((tile != 0) && (tile != cell + 1)) {
+					sum++;
+				}
+			}
+
+			scores[b] = sum;
+		}
+	}
+
+	/** Метод проверяет корректность входных параметров. */
+	private static void checkArguments(long[] boards, int count,
+			int dimension, int[] scores) throws IllegalArgumentException {
+		if ((dimension < 2) || (dimension * dimension > MAX_SIZE)) {
+			throw new IllegalArgumentException("In BatchHeuristic: "
+					+ "unsupported dimension.\n");
+		}
+
+		if ((count < 0) || (count > boards.length) || (count > scores.length)) {
+			throw new IllegalArgumentException("In BatchHeuristic: "
+					+ "incorrect batch size.\n");
+		}
+	}
+}
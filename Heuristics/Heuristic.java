@@ -0,0 +1,63 @@
+/**
+ * Heuristic.java
+ * Copyright (C) 2020 Roman S <romanstrah@mail.ru>
+ *
+ * TheFifteenPuzzleSolver is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * TheFifteenPuzzleSolver is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package Heuristics;
+
+/**
+ * Интерфейс эвристической оценки игрового поля.
+ * Оценка хранится в каждом состоянии в виде упакованного значения типа long
+ * (например, сама оценка или индексы в предвычисленных таблицах) и
+ * пересчитывается инкрементально при каждом ходе.
+ * Все оценки считаются относительно стандартного финального состояния:
+ * ячейки по порядку, пустая ячейка - последняя.
+ */
+public interface Heuristic {
+
+	/**
+	 * Метод полностью вычисляет упакованное значение оценки игрового поля.
+	 * Входные параметры:
+	 * @param gameField - массив с состоянием игрового поля;
+	 * @param dimension - размерность игрового поля.
+	 * Возвращает:
+	 * @return упакованное значение оценки.
+	 */
+	public long initialize(int[] gameField, int dimension);
+
+	/**
+	 * Метод пересчитывает упакованное значение оценки после одного хода.
+	 * Входные параметры:
+	 * @param data - упакованное значение оценки до хода;
+	 * @param tile - значение перемещенной ячейки;
+	 * @param fromCellIndex - индекс, с которого ячейка была перемещена;
+	 * @param toCellIndex - индекс, на который ячейка была перемещена;
+	 * @param dimension - размерность игрового поля.
+	 * Возвращает:
+	 * @return упакованное значение оценки после хода.
+	 */
+	public long update(long data, int tile, int fromCellIndex,
+			int toCellIndex, int dimension);
+
+	/**
+	 * Метод возвращает эвристическую оценку по упакованному значению.
+	 * Входной параметр:
+	 * @param data - упакованное значение оценки.
+	 * Возвращает:
+	 * @return эвристическая оценка.
+	 */
+	public int evaluate(long data);
+}
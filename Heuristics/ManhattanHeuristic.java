@@ -0,0 +1,69 @@
+/**
+ * ManhattanHeuristic.java
+ * Copyright (C) 2020 Roman S <romanstrah@mail.ru>
+ *
+ * TheFifteenPuzzleSolver is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * TheFifteenPuzzleSolver is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package Heuristics;
+
+import static java.lang.Math.abs;
+
+/**
+ * Эвристика "манхэттенское расстояние": сумма расстояний (по строкам
+ * и столбцам) от каждой ячейки до ее места в финальном состоянии.
+ */
+public class ManhattanHeuristic implements Heuristic {
+
+	/**
+	 * Метод вычисляет манхэттенское расстояние одной ячейки.
+	 * Входные параметры:
+	 * @param tile - значение ячейки (не 0);
+	 * @param cellIndex - индекс, на котором находится ячейка;
+	 * @param dimension - размерность игрового поля.
+	 * Возвращает:
+	 * @return расстояние до места ячейки в финальном состоянии.
+	 */
+	public static int distance(int tile, int cellIndex, int dimension) {
+		int goalCellIndex = tile - 1;
+
+		return abs(goalCellIndex / dimension - cellIndex / dimension)
+				+ abs(goalCellIndex % dimension - cellIndex % dimension);
+	}
+
+	@Override
+	public long initialize(int[] gameField, int dimension) {
+		int sum = 0;
+
+		for (int i = 0; i < gameField.length; i++) {
+			if (gameField[i] != 0) {
+				sum += distance(gameField[i], i, dimension);
+			}
+		}
+
+		return sum;
+	}
+
+	@Override
+	public long update(long data, int tile, int fromCellIndex,
+			int toCellIndex, int dimension) {
+		return data - distance(tile, fromCellIndex, dimension)
+				+ distance(tile, toCellIndex, dimension);
+	}
+
+	@Override
+	public int evaluate(long data) {
+		return (int) data;
+	}
+}
@@ -0,0 +1,58 @@
+/**
+ * MisplacedTilesHeuristic.java
+ * Copyright (C) 2020 Roman S <romanstrah@mail.ru>
+ *
+ * TheFifteenPuzzleSolver is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * TheFifteenPuzzleSolver is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package Heuristics;
+
+/**
+ * Эвристика, подсчитывающая элементы, находящиеся не на "своих" местах.
+ * Пустая ячейка не учитывается, поэтому оценка допустима.
+ */
+public class MisplacedTilesHeuristic implements Heuristic {
+
+	@Override
+	public long initialize(int[] gameField, int dimension) {
+		int wrongElementsAmount = 0;
+
+		for (int i = 0; i < gameField.length; i++) {
+			if ((gameField[i] != 0) && (gameField[i] != i + 1)) {
+				wrongElementsAmount++;
+			}
+		}
+
+		return wrongElementsAmount;
+	}
+
+	@Override
+	public long update(long data, int tile, int fromCellIndex,
+			int toCellIndex, int dimension) {
+		if (tile == fromCellIndex + 1) {
+			return data + 1;
+		}
+
+		if (tile == toCellIndex + 1) {
+			return data - 1;
+		}
+
+		return data;
+	}
+
+	@Override
+	public int evaluate(long data) {
+		return (int) data;
+	}
+}
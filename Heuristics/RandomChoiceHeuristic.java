@@ -0,0 +1,101 @@
+/**
+ * RandomChoiceHeuristic.java
+ * Copyright (C) 2020 Roman S <romanstrah@mail.ru>
+ *
+ * TheFifteenPuzzleSolver is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * TheFifteenPuzzleSolver is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package Heuristics;
+
+/**
+ * Эвристика со случайным выбором источника: для каждого состояния
+ * возвращается одна из двух оценок, выбор определяется хешем
+ * упакованного значения (для одного и того же поля выбор всегда один).
+ * Если обе оценки допустимы, результат тоже допустим, но несогласован:
+ * у соседних состояний оценки могут отличаться больше чем на 1.
+ * Эвристика предназначена для проверки решателей на несогласованных
+ * оценках (BPMX, повторное раскрытие состояний) и не экономит время:
+ * упакованные значения обеих эвристик пересчитываются при каждом ходе,
+ * так как инкрементальному пересчету нужно значение родителя, а выбор
+ * у родителя и потомка может различаться. Оценка при этом не сильнее
+ * наибольшей из двух, поэтому в обычном поиске лучше использовать одну
+ * эвристику или их максимум.
+ * Упакованное значение: младшие 32 бита - значение первой эвристики,
+ * старшие 32 бита - значение второй, поэтому упакованные значения обеих
+ * эвристик должны помещаться в 32 бита без знака.
+ */
+public class RandomChoiceHeuristic implements Heuristic {
+
+	/** Множитель для перемешивания бит (дробная часть золотого сечения). */
+	private static final long MIX_MULTIPLIER = 0x9E3779B97F4A7C15L;
+
+	private static final long HALF_MASK = 0xFFFFFFFFL;
+
+	private final Heuristic first;
+	private final Heuristic second;
+
+	/**
+	 * Конструктор.
+	 * Входные параметры:
+	 * @param first - первая эвристика;
+	 * @param second - вторая эвристика.
+	 */
+	public RandomChoiceHeuristic(Heuristic first, Heuristic second) {
+		this.first = first;
+		this.second = second;
+	}
+
+	@Override
+	public long initialize(int[] gameField, int dimension) {
+		return pack(this.first.initialize(gameField, dimension),
+				this.second.initialize(gameField, dimension));
+	}
+
+	@Override
+	public long update(long data, int tile, int fromCellIndex,
+			int toCellIndex, int dimension) {
+		return pack(this.first.update(data & HALF_MASK, tile, fromCellIndex,
+						toCellIndex, dimension),
+				this.second.update(data >>> 32, tile, fromCellIndex,
+						toCellIndex, dimension));
+	}
+
+	@Override
+	public int evaluate(long data) {
+		if ((data * MIX_MULTIPLIER) < 0) {
+			return this.second.evaluate(data >>> 32);
+		}
+
+		return this.first.evaluate(data & HALF_MASK);
+	}
+
+	/**
+	 * Метод упаковывает значения двух эвристик в одно.
+	 * Входные параметры:
+	 * @param firstData - упакованное значение первой эвристики;
+	 * @param secondData - упакованное значение второй эвристики.
+	 * Возвращает:
+	 * @return общее упакованное значение.
+	 */
+	private long pack(long firstData, long secondData)
+			throws IllegalArgumentException {
+		if (((firstData & ~HALF_MASK) != 0)
+				|| ((secondData & ~HALF_MASK) != 0)) {
+			throw new IllegalArgumentException("In pack(long, long): "
+					+ "heuristic data does not fit in 32 bits.\n");
+		}
+
+		return firstData | (secondData << 32);
+	}
+}
@@ -0,0 +1,130 @@
+/**
+ * VectorBatchHeuristic.java
+ * Copyright (C) 2020 Roman S <romanstrah@mail.ru>
+ *
+ * TheFifteenPuzzleSolver is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * TheFifteenPuzzleSolver is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package Heuristics;
+
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Векторные варианты пакетных эвристик (Vector API). Каждая дорожка
+ * вектора содержит одно упакованное игровое поле; внешний цикл идет
+ * по группам полей, внутренний - по ячейкам, сумма накапливается
+ * в регистре. Класс загружается, только если подключен модуль
+ * jdk.incubator.vector (см. BatchHeuristic).
+ */
+final class VectorBatchHeuristic {
+
+	/** Наибольшая доступная ширина вектора. */
+	private static final VectorSpecies<Long> SPECIES =
+			LongVector.SPECIES_PREFERRED;
+
+	private VectorBatchHeuristic() {}
+
+	/**
+	 * Метод вычисляет манхэттенское расстояние для пакета полей.
+	 * Последний неполный вектор обрабатывается с маской, поэтому векторы
+	 * используются и для пакетов меньше ширины вектора (например, для
+	 * дочерних состояний одного раскрытия).
+	 * Входные параметры:
+	 * @param boards - упакованные игровые поля;
+	 * @param count - количество полей в пакете;
+	 * @param dimension - размерность игровых полей;
+	 * @param scores - массив для записи оценок.
+	 * Возвращает:
+	 * @return количество обработанных полей (весь пакет).
+	 */
+	static int manhattan(long[] boards, int count, int dimension,
+			int[] scores) {
+		int multiplier = BatchHeuristic.divisionMultiplier(dimension);
+		long[] lanes = new long[SPECIES.length()];
+
+		for (int b = 0; b < count; b += SPECIES.length()) {
+			VectorMask<Long> inRange = SPECIES.indexInRange(b, count);
+			LongVector packed = LongVector.fromArray(SPECIES, boards, b,
+					inRange);
+			LongVector sum = LongVector.zero(SPECIES);
+
+			for (int cell = 0; cell < dimension * dimension; cell++) {
+				LongVector tile = packed.lanewise(VectorOperators.LSHR,
+						cell * BatchHeuristic.BITS_PER_CELL)
+						.and(BatchHeuristic.CELL_MASK);
+				LongVector goal = tile.sub(1);
+				LongVector goalRow = goal.mul(multiplier)
+						.lanewise(VectorOperators.ASHR,
+								BatchHeuristic.DIVISION_SHIFT);
+				LongVector goalColumn = goal.sub(goalRow.mul(dimension));
+				LongVector distance = goalRow.sub(cell / dimension).abs()
+						.add(goalColumn.sub(cell % dimension).abs());
+
+				sum = sum.add(distance, tile.compare(VectorOperators.NE, 0));
+			}
+
+			store(sum, lanes, scores, b, count);
+		}
+
+		return count;
+	}
+
+	/**
+	 * Метод подсчитывает элементы не на "своих" местах для пакета полей.
+	 * Входные параметры:
+	 * @param boards - упакованные игровые поля;
+	 * @param count - количество полей в пакете;
+	 * @param dimension - размерность игровых полей;
+	 * @param scores - массив для записи оценок.
+	 * Возвращает:
+	 * @return количество обработанных полей (весь пакет).
+	 */
+	static int misplacedTiles(long[] boards, int count, int dimension,
+			int[] scores) {
+		long[] lanes = new long[SPECIES.length()];
+
+		for (int b = 0; b < count; b += SPECIES.length()) {
+			VectorMask<Long> inRange = SPECIES.indexInRange(b, count);
+			LongVector packed = LongVector.fromArray(SPECIES, boards, b,
+					inRange);
+			LongVector sum = LongVector.zero(SPECIES);
+
+			for (int cell = 0; cell < dimension * dimension; cell++) {
+				LongVector tile = packed.lanewise(VectorOperators.LSHR,
+						cell * BatchHeuristic.BITS_PER_CELL)
+						.and(BatchHeuristic.CELL_MASK);
+
+				sum = sum.add(1, tile.compare(VectorOperators.NE, 0)
+						.and(tile.compare(VectorOperators.NE, cell + 1)));
+			}
+
+			store(sum, lanes, scores, b, count);
+		}
+
+		return count;
+	}
+
+	/** Метод записывает суммы дорожек вектора в массив оценок. */
+	private static void store(LongVector sum, long[] lanes, int[] scores,
+			int offset, int count) {
+		sum.intoArray(lanes, 0);
+
+		for (int i = 0; (i < lanes.length) && (offset + i < count); i++) {
+			scores[offset + i] = (int) lanes[i];
+		}
+	}
+}
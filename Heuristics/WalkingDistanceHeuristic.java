@@ -0,0 +1,351 @@
+/**
+ * WalkingDistanceHeuristic.java
+ * Copyright (C) 2020 Roman S <romanstrah@mail.ru>
+ *
+ * TheFifteenPuzzleSolver is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * TheFifteenPuzzleSolver is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package Heuristics;
+
+import java.util.Map;
+import java.util.HashMap;
+import java.util.ArrayList;
+
+/**
+ * Эвристика "walking distance".
+ * Игровое поле описывается матрицей: элемент [i][j] - количество ячеек
+ * в строке i, которые в финальном состоянии должны находиться в строке j.
+ * Для всех таких матриц один раз вычисляется таблица расстояний до
+ * финальной (поиск в ширину), а также таблица переходов между ними.
+ * Та же таблица используется для столбцов (транспонированное поле).
+ * Оценка - сумма расстояний для строк и для столбцов. В отличие от
+ * манхэттенского расстояния, учитывается взаимодействие ячеек, находящихся
+ * в одной строке или столбце. Для поля 4 на 4 таблица содержит 24964
+ * элемента.
+ * Упакованное значение: младшие 16 бит - индекс матрицы строк,
+ * следующие 16 бит - индекс матрицы столбцов (значение помещается в 32 бита,
+ * что позволяет комбинировать эвристику с другими).
+ */
+public class WalkingDistanceHeuristic implements Heuristic {
+
+	/** Максимальная поддерживаемая размерность игрового поля. */
+	private static final int MAX_DIMENSION = 4;
+
+	/** Количество бит на один элемент матрицы в ее упакованном виде. */
+	private static final int BITS_PER_ELEMENT = 3;
+
+	/** Маска одного элемента упакованной матрицы. */
+	private static final long ELEMENT_MASK = (1L << BITS_PER_ELEMENT) - 1;
+
+	/** Количество бит на индекс матрицы в упакованном значении оценки. */
+	private static final int INDEX_BITS = 16;
+
+	/** Маска индекса матрицы в упакованном значении оценки. */
+	private static final long INDEX_MASK = (1L << INDEX_BITS) - 1;
+
+	/** Направление хода: ячейка сдвигается вниз (вправо). */
+	private static final int FORWARD = 0;
+
+	/** Направление хода: ячейка сдвигается вверх (влево). */
+	private static final int BACKWARD = 1;
+
+	/** Вычисленные таблицы (индекс - размерность игрового поля). */
+	private static final Table[] TABLES = new Table[MAX_DIMENSION + 1];
+
+	/** Таблица для размерности текущей эвристики. */
+	private final Table table;
+
+	/** Размерность игрового поля. */
+	private final int dimension;
+
+	/**
+	 * Конструктор. Таблица вычисляется при первом обращении к ней
+	 * и далее используется всеми экземплярами эвристики.
+	 * Входной параметр:
+	 * @param dimension - размерность игрового поля (от 2 до 4).
+	 */
+	public WalkingDistanceHeuristic(int dimension)
+			throws IllegalArgumentException {
+		if ((dimension < 2) || (dimension > MAX_DIMENSION)) {
+			throw new IllegalArgumentException("In WalkingDistanceHeuristic"
+					+ "(int): unsupported dimension.\n");
+		}
+
+		this.dimension = dimension;
+		this.table = getTable(dimension);
+	}
+
+	/**
+	 * Метод возвращает таблицу для заданной размерности, при необходимости
+	 * вычисляя ее.
+	 * Входной параметр:
+	 * @param dimension - размерность игрового поля.
+	 * Возвращает:
+	 * @return таблица расстояний и переходов.
+	 */
+	private static synchronized Table getTable(int dimension) {
+		if (TABLES[dimension] == null) {
+			TABLES[dimension] = new Table(dimension);
+		}
+
+		return TABLES[dimension];
+	}
+
+	/**
+	 * Геттер, возвращающий количество элементов таблицы.
+	 * Возвращает:
+	 * @return количество различных матриц строк (столбцов).
+	 */
+	public int getTableSize() {
+		return this.table.distances.length;
+	}
+
+	@Override
+	public long initialize(int[] gameField, int dimension)
+			throws IllegalArgumentException {
+		if (dimension != this.dimension) {
+			throw new IllegalArgumentException("In initialize(int[], int): "
+					+ "dimension mismatch.\n");
+		}
+
+		int[][] rows = new int[dimension][dimension];
+		int[][] columns = new int[dimension][dimension];
+
+		for (int i = 0; i < gameField.length; i++) {
+			if (gameField[i] != 0) {
+				int goalCellIndex = gameField[i] - 1;
+
+				rows[i / dimension][goalCellIndex / dimension]++;
+				columns[i % dimension][goalCellIndex % dimension]++;
+			}
+		}
+
+		long rowsIndex = this.table.indexOf(rows);
+		long columnsIndex = this.table.indexOf(columns);
+
+		return rowsIndex | (columnsIndex << INDEX_BITS);
+	}
+
+	@Override
+	public long update(long data, int tile, int fromCellIndex,
+			int toCellIndex, int dimension) {
+		int goalCellIndex = tile - 1;
+		long rowsIndex = data & INDEX_MASK;
+		long columnsIndex = data >>> INDEX_BITS;
+		int direction = (toCellIndex > fromCellIndex) ? FORWARD : BACKWARD;
+
+		/**
+		 * Вертикальный ход меняет только матрицу строк,
+		 * горизонтальный - только матрицу столбцов.
+		 */
+		if (fromCellIndex / dimension != toCellIndex / dimension) {
+			rowsIndex = this.table.link((int) rowsIndex, direction,
+					goalCellIndex / dimension);
+		}
+		else {
+			columnsIndex = this.table.link((int) columnsIndex, direction,
+					goalCellIndex % dimension);
+		}
+
+		return rowsIndex | (columnsIndex << INDEX_BITS);
+	}
+
+	@Override
+	public int evaluate(long data) {
+		return this.table.distances[(int) (data & INDEX_MASK)]
+				+ this.table.distances[(int) (data >>> INDEX_BITS)];
+	}
+
+	/** Предвычисленная таблица расстояний и переходов. */
+	private static class Table {
+
+		/** Размерность игрового поля. */
+		private final int dimension;
+
+		/** Индексы матриц по их упакованному виду. */
+		private final Map<Long, Integer> indexes = new HashMap<Long, Integer>();
+
+		/** Расстояния от матриц до финальной. */
+		private final byte[] distances;
+
+		/**
+		 * Таблица переходов: для матрицы с индексом k, направления d и
+		 * финальной строки j перемещаемой ячейки новый индекс хранится
+		 * в элементе [k * 2 * dimension + d * dimension + j] (-1, если
+		 * такой ход невозможен).
+		 */
+		private final int[] links;
+
+		/**
+		 * Конструктор, вычисляющий таблицу поиском в ширину от финальной
+		 * матрицы.
+		 * Входной параметр:
+		 * @param dimension - размерность игрового поля.
+		 */
+		private Table(int dimension) {
+			this.dimension = dimension;
+
+			ArrayList<Long> matrices = new ArrayList<Long>();
+			ArrayList<Byte> distanceList = new ArrayList<Byte>();
+			ArrayList<int[]> linkList = new ArrayList<int[]>();
+
+			/** Финальная матрица: все ячейки в своих строках. */
+			int[][] goal = new int[dimension][dimension];
+			for (int i = 0; i < dimension; i++) {
+				goal[i][i] = (i == dimension - 1) ? dimension - 1 : dimension;
+			}
+
+			matrices.add(pack(goal));
+			distanceList.add((byte) 0);
+			this.indexes.put(pack(goal), 0);
+
+			for (int k = 0; k < matrices.size(); k++) {
+				int[][] matrix = unpack(matrices.get(k));
+				int[] currentLinks = new int[2 * dimension];
+				int emptyRow = emptyRowOf(matrix);
+
+				for (int direction = FORWARD; direction <= BACKWARD;
+						direction++) {
+
+					/**
+					 * Сдвиг ячейки вниз означает перемещение пустой
+					 * ячейки вверх, и наоборот.
+					 */
+					int sourceRow = (direction == FORWARD)
+							? emptyRow - 1 : emptyRow + 1;
+
+					for (int j = 0; j < dimension; j++) {
+						int index = -1;
+
+						if ((sourceRow >= 0) && (sourceRow < dimension)
+								&& (matrix[sourceRow][j] > 0)) {
+							matrix[sourceRow][j]--;
+							matrix[emptyRow][j]++;
+
+							long key = pack(matrix);
+							Integer known = this.indexes.get(key);
+
+							if (known == null) {
+								index = matrices.size();
+								matrices.add(key);
+								distanceList.add(
+										(byte) (distanceList.get(k) + 1));
+								this.indexes.put(key, index);
+							}
+							else {
+								index = known;
+							}
+
+							matrix[emptyRow][j]--;
+							matrix[sourceRow][j]++;
+						}
+
+						currentLinks[direction * dimension + j] = index;
+					}
+				}
+
+				linkList.add(currentLinks);
+			}
+
+			this.distances = new byte[matrices.size()];
+			this.links = new int[matrices.size() * 2 * dimension];
+
+			for (int k = 0; k < matrices.size(); k++) {
+				this.distances[k] = distanceList.get(k);
+				System.arraycopy(linkList.get(k), 0, this.links,
+						k * 2 * dimension, 2 * dimension);
+			}
+		}
+
+		/**
+		 * Метод возвращает индекс матрицы в таблице.
+		 * Входной параметр:
+		 * @param matrix - матрица строк (столбцов).
+		 * Возвращает:
+		 * @return индекс матрицы.
+		 */
+		private int indexOf(int[][] matrix) throws IllegalArgumentException {
+			Integer index = this.indexes.get(pack(matrix));
+
+			if (index == null) {
+				throw new IllegalArgumentException("In indexOf(int[][]): "
+						+ "incorrect game field.\n");
+			}
+
+			return index;
+		}
+
+		/**
+		 * Метод возвращает индекс матрицы, получаемой одним ходом.
+		 * Входные параметры:
+		 * @param index - индекс исходной матрицы;
+		 * @param direction - направление сдвига ячейки;
+		 * @param goalLine - финальная строка (столбец) сдвигаемой ячейки.
+		 * Возвращает:
+		 * @return индекс полученной матрицы.
+		 */
+		private int link(int index, int direction, int goalLine) {
+			return this.links[index * 2 * this.dimension
+					+ direction * this.dimension + goalLine];
+		}
+
+		/**
+		 * Метод определяет строку, в которой находится пустая ячейка:
+		 * в ней на одну ячейку меньше, чем в остальных.
+		 */
+		private int emptyRowOf(int[][] matrix) {
+			for (int i = 0; i < this.dimension; i++) {
+				int sum = 0;
+
+				for (int j = 0; j < this.dimension; j++) {
+					sum += matrix[i][j];
+				}
+
+				if (sum < this.dimension) {
+					return i;
+				}
+			}
+
+			return -1;
+		}
+
+		/** Метод упаковывает матрицу в число типа long. */
+		private long pack(int[][] matrix) {
+			long key = 0;
+
+			for (int i = 0; i < this.dimension; i++) {
+				for (int j = 0; j < this.dimension; j++) {
+					key |= ((long) matrix[i][j])
+							<< (BITS_PER_ELEMENT * (i * this.dimension + j));
+				}
+			}
+
+			return key;
+		}
+
+		/** Метод распаковывает матрицу из числа типа long. */
+		private int[][] unpack(long key) {
+			int[][] matrix = new int[this.dimension][this.dimension];
+
+			for (int i = 0; i < this.dimension; i++) {
+				for (int j = 0; j < this.dimension; j++) {
+					matrix[i][j] = (int) ((key >>> (BITS_PER_ELEMENT
+							* (i * this.dimension + j))) & ELEMENT_MASK);
+				}
+			}
+
+			return matrix;
+		}
+	}
+}
@@ -19,36 +19,77 @@
 package Solvers;
 
 import States.State;
-import java.util.Set;
-import java.util.HashSet;
+import java.util.List;
+import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.Collections;
 
-public abstract class AbstractSolver implements Solver {
-	private Set<State> visited;
+public abstract class AbstractSolver implements MonitoredSolver {
+	private VisitedSet visited;
+	private SearchMonitor monitor = null;
+
+	/** Хранилище раскрытых узлов (null - узлы связаны ссылками). */
+	private OffHeapNodeStore nodeStore = null;
 
 	/**
 	 * Конструктор.
 	 */
 	public AbstractSolver() {
-		this.visited = new HashSet<State>();
+		this(new HashVisitedSet());
+	}
+
+	/**
+	 * Конструктор, задающий множество посещенных состояний (например,
+	 * OffHeapVisitedSet, хранящее состояния вне кучи Java).
+	 * Входной параметр:
+	 * @param visited - пустое множество посещенных состояний.
+	 */
+	public AbstractSolver(VisitedSet visited) {
+		this.visited = visited;
 	}
 
 	@Override
 	public Iterable<State> solve(State initialState) {
 		if (initialState.isSolvable()) {
+			long expandedAmount = 0;
+
 			this.add(initialState);
 
 			while (!this.isVisitedAll()) {
 				State state = this.get();
 
-				if (!this.visited.contains(state)) {
+				/**
+				 * Состояние раскрывается заново, если до него найден более
+				 * короткий путь: при несогласованной эвристике первый
+				 * извлеченный из очереди путь может быть не кратчайшим.
+				 */
+				if (this.visited.addIfShorter(state)) {
 					if (state.isSolution()) {
-						return findPath(state);
+						return (this.nodeStore == null) ? findPath(state)
+								: findStoredPath(initialState, state);
 					}
 
-					this.visited.add(state);
-					state.getPossibleMoves().forEach(this::add);
+					/** Кооперативная проверка отмены и ограничений поиска. */
+					if ((this.monitor != null)
+							&& !this.monitor.onExpand(state, expandedAmount)) {
+						break;
+					}
+
+					expandedAmount++;
+
+					List<State> moves = propagatePathmax(state);
+
+					if (this.nodeStore != null) {
+						int nodeIndex = this.nodeStore.add(
+								OffHeapVisitedSet.keyOf(state),
+								state.getParentNodeIndex());
+
+						for (State move : moves) {
+							move.detachParent(nodeIndex);
+						}
+					}
+
+					moves.forEach(this::add);
 				}
 			}
 		}
@@ -75,7 +116,105 @@ public abstract class AbstractSolver implements Solver {
 		return path;
 	}
 
-	protected Set<State> getVisited() {
+	/**
+	 * Метод, определяющий полный путь до состояния по хранилищу узлов.
+	 * Ключи состояний собираются по индексам родителей, после чего путь
+	 * заново проходится от начального состояния: на каждом шаге выбирается
+	 * ход, ключ которого совпадает со следующим ключом.
+	 * Входные параметры:
+	 * @param initialState - начальное состояние;
+	 * @param state - состояние, до которого необходимо проложить путь.
+	 * Возвращает:
+	 * @return связный список, содержащий все состояния, начиная от корневого,
+	 * заканчивая найденным.
+	 */
+	private LinkedList<State> findStoredPath(State initialState, State state) {
+		LinkedList<Long> keys = new LinkedList<Long>();
+
+		keys.addFirst(OffHeapVisitedSet.keyOf(state));
+
+		for (int index = state.getParentNodeIndex();
+				index != OffHeapNodeStore.NO_PARENT;
+				index = this.nodeStore.getParent(index)) {
+			keys.addFirst(this.nodeStore.getKey(index));
+		}
+
+		LinkedList<State> path = new LinkedList<State>();
+		State currentState = initialState;
+
+		path.add(currentState);
+		keys.removeFirst();
+
+		for (long key : keys) {
+			for (State move : currentState.getPossibleMoves()) {
+				if (OffHeapVisitedSet.keyOf(move) == key) {
+					currentState = move;
+					break;
+				}
+			}
+
+			path.add(currentState);
+		}
+
+		return path;
+	}
+
+	/**
+	 * Метод порождает дочерние состояния и распространяет эвристические
+	 * оценки между ними и родителем в обе стороны (BPMX): соседние
+	 * состояния отличаются на один ход, поэтому оценка родителя не меньше
+	 * оценки любого потомка минус 1, а оценка потомка не меньше оценки
+	 * родителя минус 1. Это сохраняет отсечения при несогласованной
+	 * (но допустимой) эвристике. Оценки потомков изменяются до их
+	 * добавления в очередь.
+	 * Входной параметр:
+	 * @param state - раскрываемое состояние.
+	 * Возвращает:
+	 * @return список дочерних состояний.
+	 */
+	static List<State> propagatePathmax(State state) {
+		List<State> moves = new ArrayList<State>(4);
+
+		state.getPossibleMoves().forEach(moves::add);
+
+		int heuristic = state.getHeuristic();
+
+		for (State move : moves) {
+			heuristic = Math.max(heuristic, move.getHeuristic() - 1);
+		}
+
+		state.raiseHeuristic(heuristic);
+
+		for (State move : moves) {
+			move.raiseHeuristic(heuristic - 1);
+		}
+
+		return moves;
+	}
+
+	/**
+	 * Сеттер, задающий наблюдателя за поиском.
+	 * Входной параметр:
+	 * @param monitor - наблюдатель (null - без наблюдения).
+	 */
+	@Override
+	public void setMonitor(SearchMonitor monitor) {
+		this.monitor = monitor;
+	}
+
+	/**
+	 * Сеттер, задающий хранилище раскрытых узлов. Если хранилище задано,
+	 * дочерние состояния не ссылаются на раскрытых родителей, и в куче
+	 * остаются только состояния из очереди. Поддерживаются состояния
+	 * класса GameFieldState.
+	 * Входной параметр:
+	 * @param nodeStore - пустое хранилище (null - узлы связаны ссылками).
+	 */
+	public void setNodeStore(OffHeapNodeStore nodeStore) {
+		this.nodeStore = nodeStore;
+	}
+
+	protected VisitedSet getVisited() {
 		return this.visited;
 	}
 
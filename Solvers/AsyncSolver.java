@@ -0,0 +1,200 @@
+/**
+ * AsyncSolver.java
+ * Copyright (C) 2020 Roman S <romanstrah@mail.ru>
+ *
+ * TheFifteenPuzzleSolver is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * TheFifteenPuzzleSolver is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package Solvers;
+
+import States.State;
+import java.util.concurrent.Executor;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Асинхронный запуск решателей с отменой, ограничениями по времени
+ * и количеству раскрытых состояний, а также с периодическим сообщением
+ * о ходе поиска.
+ * Отмена возвращенного CompletableFuture (метод cancel()) останавливает
+ * поиск: решатель проверяет ее перед раскрытием каждого состояния.
+ * При превышении ограничения по времени CompletableFuture завершается
+ * исключением TimeoutException, по количеству состояний -
+ * IllegalStateException. Время отсчитывается от вызова solve(), поэтому
+ * запрос, ожидающий в очереди занятого исполнителя, тоже завершается
+ * по истечении времени и не запускается.
+ */
+public class AsyncSolver {
+
+	/** Значение ограничения, означающее его отсутствие. */
+	public static final long NO_LIMIT = 0;
+
+	/** Раз в сколько раскрытых состояний проверяется время. */
+	private static final long TIME_CHECK_INTERVAL = 1024;
+
+	private Supplier<? extends MonitoredSolver> solverFactory;
+	private Executor executor;
+
+	/**
+	 * Конструктор.
+	 * Входные параметры:
+	 * @param solverFactory - фабрика решателей (для каждого запроса
+	 * создается новый решатель);
+	 * @param executor - исполнитель, в котором выполняется поиск.
+	 */
+	public AsyncSolver(Supplier<? extends MonitoredSolver> solverFactory,
+			Executor executor) {
+		this.solverFactory = solverFactory;
+		this.executor = executor;
+	}
+
+	/**
+	 * Метод запускает поиск без ограничений и сообщений о ходе поиска.
+	 * Входной параметр:
+	 * @param initialState - начальное состояние.
+	 * Возвращает:
+	 * @return CompletableFuture с найденным путем (пустым, если решения нет).
+	 */
+	public CompletableFuture<Iterable<State>> solve(State initialState) {
+		return solve(initialState, NO_LIMIT, NO_LIMIT, NO_LIMIT, null);
+	}
+
+	/**
+	 * Метод запускает поиск.
+	 * Входные параметры:
+	 * @param initialState - начальное состояние;
+	 * @param timeoutMillis - ограничение по времени в миллисекундах;
+	 * @param maxExpandedAmount - ограничение по количеству раскрытых
+	 * состояний;
+	 * @param progressInterval - раз в сколько раскрытых состояний
+	 * сообщать о ходе поиска;
+	 * @param progressListener - получатель сообщений о ходе поиска
+	 * (null - не сообщать).
+	 * Ограничения, равные NO_LIMIT, не действуют.
+	 * Возвращает:
+	 * @return CompletableFuture с найденным путем (пустым, если решения нет).
+	 */
+	public CompletableFuture<Iterable<State>> solve(State initialState,
+			long timeoutMillis, long maxExpandedAmount, long progressInterval,
+			Consumer<SolveProgress> progressListener) {
+		CompletableFuture<Iterable<State>> future =
+				new CompletableFuture<Iterable<State>>();
+		long submitTime = System.nanoTime();
+
+		/**
+		 * Срок действует и до запуска поиска; запущенный поиск
+		 * останавливается наблюдателем.
+		 */
+		if (timeoutMillis != NO_LIMIT) {
+			future.orTimeout(timeoutMillis, TimeUnit.MILLISECONDS);
+		}
+
+		this.executor.execute(() -> {
+			if (future.isDone()) {
+				return;
+			}
+
+			MonitoredSolver solver = this.solverFactory.get();
+			Monitor monitor = new Monitor(future, submitTime, timeoutMillis,
+					maxExpandedAmount, progressInterval, progressListener);
+
+			solver.setMonitor(monitor);
+
+			try {
+				Iterable<State> path = solver.solve(initialState);
+
+				if (monitor.getStopReason() != null) {
+					future.completeExceptionally(monitor.getStopReason());
+				}
+				else {
+					future.complete(path);
+				}
+			}
+			catch (RuntimeException | Error exception) {
+				future.completeExceptionally(exception);
+			}
+		});
+
+		return future;
+	}
+
+	/** Наблюдатель, проверяющий отмену и ограничения одного запроса. */
+	private static class Monitor implements SearchMonitor {
+		private final CompletableFuture<Iterable<State>> future;
+		private final long deadline;
+		private final long maxExpandedAmount;
+		private final long progressInterval;
+		private final Consumer<SolveProgress> progressListener;
+		private final long startTime;
+		private int bestScore = 0;
+		private Throwable stopReason = null;
+
+		private Monitor(CompletableFuture<Iterable<State>> future,
+				long startTime, long timeoutMillis, long maxExpandedAmount,
+				long progressInterval,
+				Consumer<SolveProgress> progressListener) {
+			this.future = future;
+			this.startTime = startTime;
+			this.deadline = (timeoutMillis == NO_LIMIT) ? NO_LIMIT
+					: this.startTime + timeoutMillis * 1_000_000L;
+			this.maxExpandedAmount = maxExpandedAmount;
+			this.progressInterval = progressInterval;
+			this.progressListener = progressListener;
+		}
+
+		@Override
+		public boolean onExpand(State state, long expandedAmount) {
+			this.bestScore = Math.max(this.bestScore,
+					state.getDistance() + state.getHeuristic());
+
+			/** Запрос отменен или завершен извне. */
+			if (this.future.isDone()) {
+				return false;
+			}
+
+			if ((this.maxExpandedAmount != NO_LIMIT)
+					&& (expandedAmount >= this.maxExpandedAmount)) {
+				this.stopReason = new IllegalStateException("In AsyncSolver:"
+						+ " node budget of " + this.maxExpandedAmount
+						+ " states is exhausted.\n");
+				return false;
+			}
+
+			if ((this.deadline != NO_LIMIT)
+					&& (expandedAmount % TIME_CHECK_INTERVAL == 0)
+					&& (System.nanoTime() - this.deadline > 0)) {
+				this.stopReason = new TimeoutException("In AsyncSolver: "
+						+ "time budget is exhausted.\n");
+				return false;
+			}
+
+			if ((this.progressListener != null)
+					&& (this.progressInterval != NO_LIMIT)
+					&& (expandedAmount % this.progressInterval == 0)) {
+				this.progressListener.accept(new SolveProgress(expandedAmount,
+						this.bestScore, (System.nanoTime() - this.startTime)
+						/ 1_000_000L));
+			}
+
+			return true;
+		}
+
+		private Throwable getStopReason() {
+			return this.stopReason;
+		}
+	}
+}
@@ -31,6 +31,12 @@ public class BreadthSolver extends AbstractSolver {
 		this.openQueue = new LinkedList<State>();
 	}
 
+	public BreadthSolver(VisitedSet visited) {
+		super(visited);
+
+		this.openQueue = new LinkedList<State>();
+	}
+
 	@Override
 	public void add(State state) {
 		this.openQueue.add(state);
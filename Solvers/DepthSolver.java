@@ -19,31 +19,247 @@
 package Solvers;
 
 import States.State;
-import java.util.Stack;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.Collections;
 
-public class DepthSolver extends AbstractSolver {
-	private Stack<State> openStack;
+/**
+ * Поиск в глубину с итеративным углублением.
+ * Глубина поиска увеличивается на один ход за итерацию, поэтому первое
+ * найденное решение - кратчайшее. Вместо множества посещенных состояний
+ * используется таблица транспозиций фиксированного размера (с потерями):
+ * для состояния запоминается наименьшая глубина, на которой оно встречалось
+ * на текущей итерации, и повторный заход в него не глубже этой глубины
+ * отсекается. При коллизии запись заменяется, если она осталась
+ * от предыдущей итерации или новая глубина не больше записанной.
+ * Вместо таблицы можно задать множество посещенных состояний (например,
+ * OffHeapVisitedSet): оно хранит наименьшие глубины без потерь и
+ * очищается перед каждой итерацией.
+ */
+public class DepthSolver implements MonitoredSolver {
+
+	/** Количество бит индекса таблицы по умолчанию (2^20 записей). */
+	private static final int DEFAULT_TABLE_BITS = 20;
+
+	/**
+	 * Ограничение глубины по умолчанию (наибольшая длина кратчайшего
+	 * решения для поля 4x4).
+	 */
+	private static final int DEFAULT_MAX_DEPTH = 80;
+
+	/** Наибольшее количество бит индекса таблицы. */
+	private static final int MAX_TABLE_BITS = 30;
+
+	/** Количество бит глубины в записи таблицы. */
+	private static final int DEPTH_BITS = 10;
+
+	private static final int DEPTH_MASK = (1 << DEPTH_BITS) - 1;
+
+	/** Ключи Зобриста состояний. */
+	private long[] keys;
+
+	/**
+	 * Записи таблицы: номер итерации (старшие биты) и наименьшая глубина
+	 * (младшие DEPTH_BITS бит). Номер итерации 0 - пустая запись.
+	 */
+	private int[] entries;
+
+	private int mask;
+	private int maxDepth;
+
+	/** Множество посещенных состояний (null - используется таблица). */
+	private VisitedSet visited = null;
+
+	/** Номер текущей итерации. */
+	private int iteration;
+
+	private SearchMonitor monitor = null;
+
+	/** Количество раскрытых состояний за все итерации. */
+	private long expandedAmount;
+
+	/** Поиск прерван наблюдателем. */
+	private boolean isStopped;
 
+	/** Конструктор. */
 	public DepthSolver() {
-		super();
+		this(DEFAULT_TABLE_BITS, DEFAULT_MAX_DEPTH);
+	}
+
+	/**
+	 * Конструктор.
+	 * Входные параметры:
+	 * @param tableBits - количество бит индекса таблицы транспозиций
+	 * (размер таблицы - 2^tableBits записей по 12 байт);
+	 * @param maxDepth - наибольшая глубина поиска.
+	 */
+	public DepthSolver(int tableBits, int maxDepth)
+			throws IllegalArgumentException {
+		if ((tableBits < 1) || (tableBits > MAX_TABLE_BITS)) {
+			throw new IllegalArgumentException("In DepthSolver(int, int): "
+					+ "table bits must be in range [1, " + MAX_TABLE_BITS
+					+ "].\n");
+		}
+
+		if ((maxDepth < 0) || (maxDepth > DEPTH_MASK)) {
+			throw new IllegalArgumentException("In DepthSolver(int, int): "
+					+ "max depth must be in range [0, " + DEPTH_MASK + "].\n");
+		}
+
+		this.keys = new long[1 << tableBits];
+		this.entries = new int[1 << tableBits];
+		this.mask = (1 << tableBits) - 1;
+		this.maxDepth = maxDepth;
+	}
 
-		this.openStack = new Stack<State>();
+	/**
+	 * Конструктор, задающий множество посещенных состояний вместо таблицы
+	 * транспозиций.
+	 * Входной параметр:
+	 * @param visited - множество посещенных состояний.
+	 */
+	public DepthSolver(VisitedSet visited) {
+		this.visited = visited;
+		this.maxDepth = DEFAULT_MAX_DEPTH;
 	}
 
 	@Override
-	public void add(State state) {
-		if (!this.getVisited().contains(state)) {
-			this.openStack.push(state);
+	public Iterable<State> solve(State initialState) {
+		if (!initialState.isSolvable()) {
+			return Collections.emptyList();
+		}
+
+		if (this.entries != null) {
+			Arrays.fill(this.entries, 0);
+		}
+
+		this.expandedAmount = 0;
+		this.isStopped = false;
+
+		for (int limit = 0; limit <= this.maxDepth; limit++) {
+			this.iteration = limit + 1;
+
+			if (this.visited != null) {
+				this.visited.clear();
+			}
+
+			State solution = search(initialState, 0, limit);
+
+			if (solution != null) {
+				return findPath(solution, initialState);
+			}
+
+			if (this.isStopped) {
+				break;
+			}
 		}
+
+		return Collections.emptyList();
 	}
 
-	@Override
-	public State get() {
-		return this.openStack.pop();
+	/**
+	 * Поиск в глубину с ограничением глубины.
+	 * Входные параметры:
+	 * @param state - текущее состояние;
+	 * @param depth - глубина текущего состояния;
+	 * @param limit - ограничение глубины текущей итерации.
+	 * Возвращает:
+	 * @return найденное решение или null.
+	 */
+	private State search(State state, int depth, int limit) {
+		if (state.isSolution()) {
+			return state;
+		}
+
+		if ((depth == limit) || !record(state, depth)) {
+			return null;
+		}
+
+		/** Кооперативная проверка отмены и ограничений поиска. */
+		if ((this.monitor != null)
+				&& !this.monitor.onExpand(state, this.expandedAmount)) {
+			this.isStopped = true;
+			return null;
+		}
+
+		this.expandedAmount++;
+
+		for (State move : state.getPossibleMoves()) {
+			if (move.equals(state.getParent())) {
+				continue;
+			}
+
+			State solution = search(move, depth + 1, limit);
+
+			if ((solution != null) || this.isStopped) {
+				return solution;
+			}
+		}
+
+		return null;
+	}
+
+	/**
+	 * Метод записывает состояние в таблицу транспозиций или в множество
+	 * посещенных состояний.
+	 * Входные параметры:
+	 * @param state - состояние;
+	 * @param depth - глубина, на которой встретилось состояние.
+	 * Возвращает:
+	 * @return false, если на текущей итерации состояние уже встречалось
+	 * на той же или меньшей глубине (поддерево уже просмотрено), иначе true.
+	 */
+	private boolean record(State state, int depth) {
+
+		/** Расстояние состояния отличается от глубины на постоянную. */
+		if (this.visited != null) {
+			return this.visited.addIfShorter(state);
+		}
+
+		long key = state.getZobristKey();
+		int index = (int) (key ^ (key >>> 32)) & this.mask;
+		int entry = this.entries[index];
+		boolean isCurrent = (entry >>> DEPTH_BITS) == this.iteration;
+
+		if (isCurrent && (this.keys[index] == key)) {
+			if ((entry & DEPTH_MASK) <= depth) {
+				return false;
+			}
+		}
+		else if (isCurrent && ((entry & DEPTH_MASK) < depth)) {
+
+			/** Более мелкая запись другого состояния отсекает больше. */
+			return true;
+		}
+
+		this.keys[index] = key;
+		this.entries[index] = (this.iteration << DEPTH_BITS) | depth;
+
+		return true;
+	}
+
+	/**
+	 * Метод, определяющий путь от начального состояния до решения.
+	 * Входные параметры:
+	 * @param state - найденное решение;
+	 * @param initialState - начальное состояние.
+	 * Возвращает:
+	 * @return связный список состояний пути.
+	 */
+	private LinkedList<State> findPath(State state, State initialState) {
+		LinkedList<State> path = new LinkedList<State>();
+
+		for (State currentState = state; currentState != initialState;
+				currentState = currentState.getParent()) {
+			path.addFirst(currentState);
+		}
+		path.addFirst(initialState);
+
+		return path;
 	}
 
 	@Override
-	public boolean isVisitedAll() {
-		return this.openStack.empty();
+	public void setMonitor(SearchMonitor monitor) {
+		this.monitor = monitor;
 	}
 }
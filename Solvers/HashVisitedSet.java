@@ -0,0 +1,65 @@
+/**
+ * HashVisitedSet.java
+ * Copyright (C) 2020 Roman S <romanstrah@mail.ru>
+ * 
+ * TheFifteenPuzzleSolver is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * TheFifteenPuzzleSolver is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License along
+ * with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package Solvers;
+
+import States.State;
+import java.util.Map;
+import java.util.HashMap;
+
+/**
+ * Множество посещенных состояний, хранящее состояния и их расстояния
+ * от начального состояния в куче Java (используется решателями
+ * по умолчанию).
+ */
+public class HashVisitedSet implements VisitedSet {
+	private Map<State, Integer> distances = new HashMap<State, Integer>();
+
+	@Override
+	public boolean add(State state) {
+		return this.distances.putIfAbsent(state, state.getDistance()) == null;
+	}
+
+	@Override
+	public boolean addIfShorter(State state) {
+		Integer distance = this.distances.get(state);
+
+		if ((distance != null) && (distance <= state.getDistance())) {
+			return false;
+		}
+
+		this.distances.put(state, state.getDistance());
+
+		return true;
+	}
+
+	@Override
+	public boolean contains(State state) {
+		return this.distances.containsKey(state);
+	}
+
+	@Override
+	public long size() {
+		return this.distances.size();
+	}
+
+	@Override
+	public void clear() {
+		this.distances.clear();
+	}
+}
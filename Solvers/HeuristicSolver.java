@@ -23,6 +23,7 @@ import java.util.Queue;
 import java.util.PriorityQueue;
 
 public class HeuristicSolver extends AbstractSolver {
+
 	private Queue<State> openQueue;
 
 	/** Конструктор. */
@@ -32,6 +33,17 @@ public class HeuristicSolver extends AbstractSolver {
 		this.openQueue = new PriorityQueue<State>();
 	}
 
+	/**
+	 * Конструктор, задающий множество посещенных состояний.
+	 * Входной параметр:
+	 * @param visited - пустое множество посещенных состояний.
+	 */
+	public HeuristicSolver(VisitedSet visited) {
+		super(visited);
+
+		this.openQueue = new PriorityQueue<State>();
+	}
+
 	/**
 	 * Метод добавляет переданное состояние в очередь.
 	 * Входной параметр:
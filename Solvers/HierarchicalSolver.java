@@ -0,0 +1,426 @@
+/**
+ * HierarchicalSolver.java
+ * Copyright (C) 2020 Roman S <romanstrah@mail.ru>
+ *
+ * TheFifteenPuzzleSolver is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * TheFifteenPuzzleSolver is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package Solvers;
+
+import States.State;
+import States.GameFieldState;
+import Heuristics.ManhattanHeuristic;
+import java.util.Map;
+import java.util.HashMap;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.Collections;
+
+/**
+ * Решатель для полей большой размерности (5 на 5 и более), находящий
+ * не кратчайшее, но короткое решение за миллисекунды.
+ * Задача разбивается на подзадачи: поочередно устанавливаются верхняя
+ * строка и левый столбец оставшейся части поля, пока не останется
+ * поле 3 на 3. Ячейки строки (столбца) ставятся по одной поиском в ширину
+ * по положениям пустой ячейки и устанавливаемой ячейки; две последние
+ * ячейки ставятся совместно в окне 3 на 3 у края поля. Оставшееся поле
+ * 3 на 3 решается оптимально (A* с манхэттенским расстоянием).
+ * Поддерживаются состояния класса GameFieldState со стандартным финальным
+ * состоянием.
+ */
+public class HierarchicalSolver implements Solver {
+
+	/** Размерность оставшегося поля, решаемого оптимально. */
+	private static final int FINAL_DIMENSION = 3;
+
+	/** Размерность игрового поля. */
+	private int dimension;
+
+	/** Количество ячеек игрового поля. */
+	private int size;
+
+	/** Рабочая копия игрового поля. */
+	private int[] board;
+
+	/** Индекс пустой ячейки в рабочей копии. */
+	private int emptyCellIndex;
+
+	/** Ячейки, которые уже установлены и не должны сдвигаться. */
+	private boolean[] locked;
+
+	/** Последовательность ходов: индексы, на которые сдвигается пустая ячейка. */
+	private ArrayList<Integer> moves;
+
+	@Override
+	public Iterable<State> solve(State initialState) {
+		GameFieldState state = (GameFieldState) initialState;
+
+		if (!state.isSolvable()) {
+			return Collections.emptyList();
+		}
+
+		this.dimension = state.getDimension();
+		this.size = state.getSize();
+		this.board = state.getGameField().clone();
+		this.emptyCellIndex = state.getEmptyCellIndex();
+		this.locked = new boolean[this.size];
+		this.moves = new ArrayList<Integer>();
+
+		int top = 0;
+		int left = 0;
+
+		/**
+		 * Поочередная установка строк и столбцов, пока оставшаяся часть
+		 * поля больше 3 на 3.
+		 */
+		while (this.dimension - Math.min(top, left) > FINAL_DIMENSION) {
+			if (top <= left) {
+				placeLine(top, left, false);
+				top++;
+			}
+			else {
+				placeLine(left, top, true);
+				left++;
+			}
+		}
+
+		solveRemainder(top, left);
+
+		return buildPath(state);
+	}
+
+	/**
+	 * Метод переводит координаты в индекс ячейки.
+	 * Входные параметры:
+	 * @param line - индекс строки (столбца, если transposed);
+	 * @param position - индекс столбца (строки, если transposed);
+	 * @param transposed - признак работы со столбцом.
+	 * Возвращает:
+	 * @return индекс ячейки.
+	 */
+	private int cellIndex(int line, int position, boolean transposed) {
+		return transposed ? position * this.dimension + line
+				: line * this.dimension + position;
+	}
+
+	/**
+	 * Метод устанавливает одну строку (столбец) оставшейся части поля.
+	 * Входные параметры:
+	 * @param line - индекс устанавливаемой строки (столбца);
+	 * @param start - первая позиция строки (столбца) в оставшейся части;
+	 * @param transposed - признак установки столбца.
+	 */
+	private void placeLine(int line, int start, boolean transposed) {
+		int last = this.dimension - 1;
+
+		/** Все ячейки, кроме двух последних, ставятся по одной. */
+		for (int position = start; position < last - 1; position++) {
+			int target = cellIndex(line, position, transposed);
+
+			placeTiles(new int[] {target + 1}, new int[] {target},
+					regionCells());
+			this.locked[target] = true;
+		}
+
+		int targetA = cellIndex(line, last - 1, transposed);
+		int targetB = cellIndex(line, last, transposed);
+		int tileA = targetA + 1;
+		int tileB = targetB + 1;
+
+		if ((this.board[targetA] != tileA) || (this.board[targetB] != tileB)) {
+
+			/**
+			 * Подготовка: первая ячейка ставится на свое место, вторая -
+			 * на две строки ниже последнего места, пустая ячейка переводится
+			 * в окно 3 на 3 у края поля. После этого обе ячейки ставятся
+			 * совместным поиском внутри окна.
+			 */
+			int stagingB = cellIndex(line + 2, last, transposed);
+			boolean[] window = new boolean[this.size];
+
+			for (int i = line; i <= line + 2; i++) {
+				for (int j = last - 2; j <= last; j++) {
+					int cell = cellIndex(i, j, transposed);
+					window[cell] = !this.locked[cell];
+				}
+			}
+
+			placeTiles(new int[] {tileA}, new int[] {targetA}, regionCells());
+			this.locked[targetA] = true;
+			placeTiles(new int[] {tileB}, new int[] {stagingB}, regionCells());
+			this.locked[targetA] = false;
+
+			boolean[] allowed = regionCells();
+			allowed[targetA] = false;
+			allowed[stagingB] = false;
+			moveEmptyCell(window, allowed);
+
+			if (!placeTiles(new int[] {tileA, tileB},
+					new int[] {targetA, targetB}, window)) {
+				placeTiles(new int[] {tileA, tileB},
+						new int[] {targetA, targetB}, regionCells());
+			}
+		}
+
+		this.locked[targetA] = true;
+		this.locked[targetB] = true;
+	}
+
+	/**
+	 * Метод возвращает ячейки, по которым может перемещаться пустая ячейка:
+	 * все не установленные ячейки.
+	 */
+	private boolean[] regionCells() {
+		boolean[] allowed = new boolean[this.size];
+
+		for (int i = 0; i < this.size; i++) {
+			allowed[i] = !this.locked[i];
+		}
+
+		return allowed;
+	}
+
+	/**
+	 * Метод переводит пустую ячейку в одну из заданных ячеек.
+	 * Входные параметры:
+	 * @param targets - допустимые конечные положения пустой ячейки;
+	 * @param allowed - ячейки, по которым можно перемещаться.
+	 */
+	private void moveEmptyCell(boolean[] targets, boolean[] allowed) {
+		search(new int[0], new int[0], targets, allowed);
+	}
+
+	/**
+	 * Метод ставит заданные ячейки (одну или две) на заданные места.
+	 * Входные параметры:
+	 * @param tiles - значения ячеек;
+	 * @param targets - индексы мест для ячеек;
+	 * @param allowed - ячейки, по которым может перемещаться пустая ячейка.
+	 * Возвращает:
+	 * @return true - ячейки поставлены;
+	 *         false - это невозможно в пределах allowed.
+	 */
+	private boolean placeTiles(int[] tiles, int[] targets, boolean[] allowed) {
+		return search(tiles, targets, null, allowed);
+	}
+
+	/**
+	 * Поиск в ширину по положениям пустой ячейки и отслеживаемых ячеек.
+	 * Остальные ячейки неразличимы, поэтому пространство поиска не больше
+	 * size в степени (количество отслеживаемых ячеек + 1). Найденные ходы
+	 * применяются к рабочей копии поля.
+	 * Входные параметры:
+	 * @param tiles - значения отслеживаемых ячеек;
+	 * @param targets - индексы мест для отслеживаемых ячеек;
+	 * @param emptyCellTargets - допустимые конечные положения пустой
+	 * ячейки (null - любые);
+	 * @param allowed - ячейки, по которым может перемещаться пустая ячейка.
+	 * Возвращает:
+	 * @return true - цель достигнута;
+	 *         false - цель недостижима.
+	 */
+	private boolean search(int[] tiles, int[] targets,
+			boolean[] emptyCellTargets, boolean[] allowed) {
+		int[] positions = new int[tiles.length + 1];
+
+		positions[0] = this.emptyCellIndex;
+		for (int i = 0; i < tiles.length; i++) {
+			for (int cell = 0; cell < this.size; cell++) {
+				if (this.board[cell] == tiles[i]) {
+					positions[i + 1] = cell;
+				}
+			}
+		}
+
+		Map<Long, Long> parents = new HashMap<Long, Long>();
+		ArrayDeque<Long> queue = new ArrayDeque<Long>();
+		long startKey = encode(positions);
+
+		parents.put(startKey, startKey);
+		queue.add(startKey);
+
+		while (!queue.isEmpty()) {
+			long key = queue.poll();
+			int[] current = decode(key, positions.length);
+
+			if (isGoal(current, targets, emptyCellTargets)) {
+				applyPath(parents, startKey, key, positions.length);
+				return true;
+			}
+
+			int row = current[0] / this.dimension;
+			int column = current[0] % this.dimension;
+			int[] neighbours = {
+					(row > 0) ? current[0] - this.dimension : -1,
+					(row < this.dimension - 1) ? current[0] + this.dimension : -1,
+					(column > 0) ? current[0] - 1 : -1,
+					(column < this.dimension - 1) ? current[0] + 1 : -1};
+
+			for (int neighbour : neighbours) {
+				if ((neighbour < 0) || !allowed[neighbour]) {
+					continue;
+				}
+
+				int[] next = current.clone();
+
+				for (int i = 1; i < next.length; i++) {
+					if (next[i] == neighbour) {
+						next[i] = current[0];
+					}
+				}
+				next[0] = neighbour;
+
+				long nextKey = encode(next);
+
+				if (!parents.containsKey(nextKey)) {
+					parents.put(nextKey, key);
+					queue.add(nextKey);
+				}
+			}
+		}
+
+		return false;
+	}
+
+	/** Метод проверяет, достигнута ли цель поиска. */
+	private boolean isGoal(int[] positions, int[] targets,
+			boolean[] emptyCellTargets) {
+		for (int i = 0; i < targets.length; i++) {
+			if (positions[i + 1] != targets[i]) {
+				return false;
+			}
+		}
+
+		return (emptyCellTargets == null) || emptyCellTargets[positions[0]];
+	}
+
+	/** Метод упаковывает положения ячеек в число типа long. */
+	private long encode(int[] positions) {
+		long key = 0;
+
+		for (int i = positions.length - 1; i >= 0; i--) {
+			key = key * this.size + positions[i];
+		}
+
+		return key;
+	}
+
+	/** Метод распаковывает положения ячеек из числа типа long. */
+	private int[] decode(long key, int length) {
+		int[] positions = new int[length];
+
+		for (int i = 0; i < length; i++) {
+			positions[i] = (int) (key % this.size);
+			key /= this.size;
+		}
+
+		return positions;
+	}
+
+	/**
+	 * Метод восстанавливает найденный путь и применяет его ходы
+	 * к рабочей копии поля.
+	 */
+	private void applyPath(Map<Long, Long> parents, long startKey,
+			long goalKey, int length) {
+		LinkedList<Integer> path = new LinkedList<Integer>();
+
+		for (long key = goalKey; key != startKey; key = parents.get(key)) {
+			path.addFirst(decode(key, length)[0]);
+		}
+
+		path.forEach(this::applyMove);
+	}
+
+	/**
+	 * Метод сдвигает пустую ячейку на соседнее место.
+	 * Входной параметр:
+	 * @param cell - индекс соседней с пустой ячейки.
+	 */
+	private void applyMove(int cell) {
+		this.board[this.emptyCellIndex] = this.board[cell];
+		this.board[cell] = 0;
+		this.emptyCellIndex = cell;
+		this.moves.add(cell);
+	}
+
+	/**
+	 * Метод оптимально решает оставшуюся часть поля 3 на 3 (или все поле,
+	 * если оно меньше). Ячейки переименовываются так, чтобы оставшаяся часть
+	 * стала обычной задачей со стандартным финальным состоянием.
+	 * Входные параметры:
+	 * @param top - первая строка оставшейся части;
+	 * @param left - первый столбец оставшейся части.
+	 */
+	private void solveRemainder(int top, int left) {
+		int remainderDimension = this.dimension - top;
+		int[] remainder = new int[remainderDimension * remainderDimension];
+
+		for (int i = 0; i < remainderDimension; i++) {
+			for (int j = 0; j < remainderDimension; j++) {
+				int tile = this.board[(top + i) * this.dimension + left + j];
+				int local = 0;
+
+				if (tile != 0) {
+					int goalCell = tile - 1;
+					local = (goalCell / this.dimension - top) * remainderDimension
+							+ (goalCell % this.dimension - left) + 1;
+				}
+
+				remainder[i * remainderDimension + j] = local;
+			}
+		}
+
+		GameFieldState remainderState = new GameFieldState(null,
+				remainderDimension, remainder, new ManhattanHeuristic());
+		boolean isFirst = true;
+
+		for (State pathState : new HeuristicSolver().solve(remainderState)) {
+			if (isFirst) {
+				isFirst = false;
+				continue;
+			}
+
+			int localCell = ((GameFieldState) pathState).getEmptyCellIndex();
+
+			applyMove((top + localCell / remainderDimension) * this.dimension
+					+ left + localCell % remainderDimension);
+		}
+	}
+
+	/**
+	 * Метод строит цепочку состояний, применяя найденные ходы
+	 * к начальному состоянию.
+	 */
+	private LinkedList<State> buildPath(GameFieldState initialState) {
+		LinkedList<State> path = new LinkedList<State>();
+		GameFieldState state = initialState;
+
+		path.add(state);
+
+		for (int cell : this.moves) {
+			for (State move : state.getPossibleMoves()) {
+				if (((GameFieldState) move).getEmptyCellIndex() == cell) {
+					state = (GameFieldState) move;
+					break;
+				}
+			}
+
+			path.add(state);
+		}
+
+		return path;
+	}
+}
@@ -0,0 +1,417 @@
+/**
+ * MemoryBoundedSolver.java
+ * Copyright (C) 2020 Roman S <romanstrah@mail.ru>
+ *
+ * TheFifteenPuzzleSolver is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * TheFifteenPuzzleSolver is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package Solvers;
+
+import States.State;
+import java.util.List;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.TreeSet;
+import java.util.Comparator;
+import java.util.LinkedList;
+import java.util.Collections;
+
+/**
+ * Поиск A* с ограниченной памятью (SMA*).
+ * В дереве поиска хранится не более заданного количества вершин. Дочерние
+ * вершины порождаются по одной, начиная с вершины с наименьшей оценкой.
+ * Если для новой вершины не хватает места, удаляется лист с наибольшей
+ * оценкой (при равных оценках - ближайший к корню). Родитель запоминает
+ * уточненную оценку каждой удаленной дочерней вершины отдельно и снова
+ * попадает в список раскрываемых вершин, чтобы при необходимости породить
+ * ее заново с этой оценкой. Оценка внутренней вершины - наименьшая
+ * оценка ее дочерних вершин (в том числе удаленных), поэтому оценки
+ * растут по мере поиска и он не зацикливается. Если ограничение позволяет
+ * хранить путь до решения, найденное решение оптимально (при допустимой
+ * эвристике); иначе возвращается пустой список, а не OutOfMemoryError.
+ */
+public class MemoryBoundedSolver implements Solver {
+
+	/** Ограничение количества вершин по умолчанию. */
+	private static final int DEFAULT_MAX_NODES = 1000000;
+
+	/** Оценка вершины, решение через которую не помещается в память. */
+	private static final int UNREACHABLE = Integer.MAX_VALUE;
+
+	/** Оценка дочерней вершины, которая еще не порождалась. */
+	private static final int NOT_GENERATED = -1;
+
+	private int maxNodes;
+
+	/** Конструктор. */
+	public MemoryBoundedSolver() {
+		this(DEFAULT_MAX_NODES);
+	}
+
+	/**
+	 * Конструктор.
+	 * Входной параметр:
+	 * @param maxNodes - наибольшее количество вершин в дереве поиска.
+	 */
+	public MemoryBoundedSolver(int maxNodes) throws IllegalArgumentException {
+		if (maxNodes < 2) {
+			throw new IllegalArgumentException("In MemoryBoundedSolver(int): "
+					+ "node limit must be at least 2.\n");
+		}
+
+		this.maxNodes = maxNodes;
+	}
+
+	@Override
+	public Iterable<State> solve(State initialState) {
+		if (!initialState.isSolvable()) {
+			return Collections.emptyList();
+		}
+
+		Search search = new Search(initialState);
+
+		while (!search.open.isEmpty()) {
+			Node node = search.open.first();
+
+			if (node.priority == UNREACHABLE) {
+				break;
+			}
+
+			if ((node.children == null) && node.state.isSolution()) {
+				return findPath(node);
+			}
+
+			search.open.remove(node);
+			search.generateChild(node);
+		}
+
+		return Collections.emptyList();
+	}
+
+	/**
+	 * Метод, определяющий путь от корня до вершины.
+	 * Входной параметр:
+	 * @param node - вершина с решением.
+	 * Возвращает:
+	 * @return связный список состояний пути.
+	 */
+	private LinkedList<State> findPath(Node node) {
+		LinkedList<State> path = new LinkedList<State>();
+
+		for (Node currentNode = node; currentNode != null;
+				currentNode = currentNode.parent) {
+			path.addFirst(currentNode.state);
+		}
+
+		return path;
+	}
+
+	/** Вершина дерева поиска. */
+	private static class Node {
+		private final State state;
+		private final Node parent;
+
+		/** Номер хода, которым вершина получена из родителя. */
+		private final int moveIndex;
+
+		private final long id;
+
+		/** Оценка вершины при порождении (расстояние + эвристика). */
+		private final int ownScore;
+
+		/** Уточненная оценка: наименьшая оценка дочерних вершин. */
+		private int score;
+
+		/** Приоритет в списке open (изменяется вне списка). */
+		private int priority;
+
+		/**
+		 * Дочерние вершины по номерам ходов (null - вершина не хранится).
+		 * Массив создается при порождении первой дочерней вершины.
+		 */
+		private Node[] children = null;
+
+		/**
+		 * Оценки отсутствующих дочерних вершин: уточненная оценка удаленной
+		 * вершины, NOT_GENERATED или UNREACHABLE.
+		 */
+		private int[] childScores = null;
+
+		/** Количество хранящихся дочерних вершин. */
+		private int childrenAmount = 0;
+
+		private Node(State state, Node parent, int moveIndex, int score,
+				long id) {
+			this.state = state;
+			this.parent = parent;
+			this.moveIndex = moveIndex;
+			this.ownScore = score;
+			this.score = score;
+			this.id = id;
+		}
+
+		/**
+		 * Метод возвращает оценку отсутствующей дочерней вершины: еще
+		 * не порождавшаяся вершина оценивается не ниже родителя (pathmax).
+		 */
+		private int getAbsentScore(int index) {
+			return (this.childScores[index] == NOT_GENERATED)
+					? this.ownScore : this.childScores[index];
+		}
+
+		/**
+		 * Метод находит отсутствующую дочернюю вершину с наименьшей
+		 * оценкой.
+		 * Возвращает:
+		 * @return номер хода или -1, если все дочерние вершины хранятся.
+		 */
+		private int findBestAbsent() {
+			int bestIndex = -1;
+
+			for (int i = 0; i < this.children.length; i++) {
+				if ((this.children[i] == null) && ((bestIndex < 0)
+						|| (getAbsentScore(i) < getAbsentScore(bestIndex)))) {
+					bestIndex = i;
+				}
+			}
+
+			return bestIndex;
+		}
+
+		/**
+		 * Метод, определяющий приоритет вершины в списке open: для
+		 * нераскрытой вершины - ее оценка, для остальных - наименьшая оценка
+		 * отсутствующих дочерних вершин, которые нужно породить.
+		 */
+		private int computePriority() {
+			if (this.children == null) {
+				return this.score;
+			}
+
+			int bestIndex = findBestAbsent();
+
+			return (bestIndex < 0) ? UNREACHABLE : getAbsentScore(bestIndex);
+		}
+
+		/** Метод вычисляет оценку раскрытой вершины по дочерним вершинам. */
+		private int computeScore() {
+			int minScore = UNREACHABLE;
+
+			for (int i = 0; i < this.children.length; i++) {
+				minScore = Math.min(minScore, (this.children[i] != null)
+						? this.children[i].score : getAbsentScore(i));
+			}
+
+			return minScore;
+		}
+
+		/** Метод проверяет, является ли вершина листом дерева. */
+		private boolean isLeaf() {
+			return this.childrenAmount == 0;
+		}
+
+		/**
+		 * Метод проверяет, встречается ли состояние на пути от корня
+		 * до этой вершины.
+		 */
+		private boolean isOnPath(State candidate) {
+			for (Node node = this; node != null; node = node.parent) {
+				if (node.state.equals(candidate)) {
+					return true;
+				}
+			}
+
+			return false;
+		}
+	}
+
+	/** Состояние одного поиска. */
+	private class Search {
+
+		/**
+		 * Порядок вершин: по возрастанию приоритета, а при равных
+		 * приоритетах - по убыванию глубины. Приоритет изменяется только
+		 * у вершин, удаленных из множеств.
+		 */
+		private final Comparator<Node> order = Comparator
+				.comparingInt((Node node) -> node.priority)
+				.thenComparing((Node node) -> -node.state.getDistance())
+				.thenComparingLong((Node node) -> node.id);
+
+		/**
+		 * Листья дерева и внутренние вершины с отсутствующими дочерними
+		 * вершинами. Первый элемент раскрывается.
+		 */
+		private final TreeSet<Node> open = new TreeSet<Node>(this.order);
+
+		/**
+		 * Листья дерева, кроме корня. Последний элемент удаляется
+		 * при нехватке памяти.
+		 */
+		private final TreeSet<Node> leaves = new TreeSet<Node>(this.order);
+
+		/** Количество вершин в дереве. */
+		private int nodesAmount = 1;
+
+		/** Счетчик для идентификаторов вершин. */
+		private long nextId = 0;
+
+		private Search(State initialState) {
+			Node root = new Node(initialState, null, -1,
+					initialState.getDistance() + initialState.getHeuristic(),
+					this.nextId++);
+
+			root.priority = root.score;
+			this.open.add(root);
+		}
+
+		/**
+		 * Метод порождает одну дочернюю вершину с наименьшей оценкой (новую
+		 * или удаленную ранее), при необходимости освобождая место удалением
+		 * худшего листа, и уточняет оценки предков.
+		 * Входной параметр:
+		 * @param node - раскрываемая вершина (уже удалена из open).
+		 */
+		private void generateChild(Node node) {
+			List<State> moves = new ArrayList<State>(4);
+
+			node.state.getPossibleMoves().forEach(moves::add);
+
+			if (node.children == null) {
+				node.children = new Node[moves.size()];
+				node.childScores = new int[moves.size()];
+				Arrays.fill(node.childScores, NOT_GENERATED);
+			}
+
+			int index = node.findBestAbsent();
+			State move = moves.get(index);
+			int score = Math.max(node.getAbsentScore(index),
+					move.getDistance() + move.getHeuristic());
+
+			/**
+			 * Ход в состояние на пути от корня не ведет к оптимальному
+			 * решению, а путь до решения через вершину с оценкой score
+			 * содержит не менее score + 1 вершин и не поместится в память.
+			 */
+			if ((score >= maxNodes) || node.isOnPath(move)) {
+				score = UNREACHABLE;
+			}
+
+			if (score != UNREACHABLE) {
+				while (this.nodesAmount >= maxNodes) {
+					Node worst = findWorstLeaf(node);
+
+					if (worst == null) {
+						break;
+					}
+
+					prune(worst);
+				}
+			}
+
+			if ((score == UNREACHABLE) || (this.nodesAmount >= maxNodes)) {
+				node.childScores[index] = UNREACHABLE;
+			}
+			else {
+				Node child = new Node(move, node, index, score,
+						this.nextId++);
+
+				child.priority = child.score;
+				node.children[index] = child;
+				node.childrenAmount++;
+				this.nodesAmount++;
+				this.open.add(child);
+				this.leaves.add(child);
+			}
+
+			refresh(node);
+			backUp(node);
+		}
+
+		/**
+		 * Метод обновляет приоритет вершины и ее наличие в open: в списке
+		 * находятся листья и вершины с отсутствующими дочерними вершинами.
+		 * Входной параметр:
+		 * @param node - вершина.
+		 */
+		private void refresh(Node node) {
+			this.open.remove(node);
+			this.leaves.remove(node);
+			node.priority = node.computePriority();
+
+			if (node.isLeaf() || (node.priority != UNREACHABLE)) {
+				this.open.add(node);
+			}
+
+			if (node.isLeaf() && (node.parent != null)) {
+				this.leaves.add(node);
+			}
+		}
+
+		/**
+		 * Метод уточняет оценки вершины и ее предков по дочерним вершинам.
+		 * Входной параметр:
+		 * @param node - раскрытая вершина.
+		 */
+		private void backUp(Node node) {
+			for (Node current = node; current != null;
+					current = current.parent) {
+				int score = current.computeScore();
+
+				if (score == current.score) {
+					break;
+				}
+
+				current.score = score;
+			}
+		}
+
+		/**
+		 * Метод находит лист с наибольшим приоритетом. Корень
+		 * и раскрываемая вершина не удаляются.
+		 * Входной параметр:
+		 * @param expandedNode - раскрываемая вершина.
+		 * Возвращает:
+		 * @return лист или null, если удалять нечего.
+		 */
+		private Node findWorstLeaf(Node expandedNode) {
+			for (Node node : this.leaves.descendingSet()) {
+				if (node != expandedNode) {
+					return node;
+				}
+			}
+
+			return null;
+		}
+
+		/**
+		 * Метод удаляет лист. Его уточненная оценка запоминается в родителе
+		 * под номером хода, и родитель попадает в open, чтобы удаленная
+		 * вершина могла быть порождена заново.
+		 * Входной параметр:
+		 * @param leaf - удаляемый лист.
+		 */
+		private void prune(Node leaf) {
+			Node parent = leaf.parent;
+
+			this.open.remove(leaf);
+			this.leaves.remove(leaf);
+			this.nodesAmount--;
+			parent.children[leaf.moveIndex] = null;
+			parent.childScores[leaf.moveIndex] = leaf.score;
+			parent.childrenAmount--;
+			refresh(parent);
+		}
+	}
+}
@@ -0,0 +1,33 @@
+/**
+ * MonitoredSolver.java
+ * Copyright (C) 2020 Roman S <romanstrah@mail.ru>
+ * 
+ * TheFifteenPuzzleSolver is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * TheFifteenPuzzleSolver is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License along
+ * with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package Solvers;
+
+/**
+ * Решатель, поддерживающий наблюдателя за поиском (отмену и ограничения,
+ * см. AsyncSolver).
+ */
+public interface MonitoredSolver extends Solver {
+
+	/**
+	 * Сеттер, задающий наблюдателя за поиском.
+	 * Входной параметр:
+	 * @param monitor - наблюдатель (null - без наблюдения).
+	 */
+	void setMonitor(SearchMonitor monitor);
+}
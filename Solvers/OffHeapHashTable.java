@@ -0,0 +1,326 @@
+/**
+ * OffHeapHashTable.java
+ * Copyright (C) 2020 Roman S <romanstrah@mail.ru>
+ *
+ * TheFifteenPuzzleSolver is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * TheFifteenPuzzleSolver is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package Solvers;
+
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.nio.IntBuffer;
+
+/**
+ * Хэш-таблица с открытой адресацией "ключ типа long - значение типа int",
+ * хранящая данные вне кучи Java (в прямых или, по запросу, отображенных
+ * на файл буферах, см. OffHeapMemory). Размер таблицы
+ * вычисляется из заданного бюджета памяти и не меняется, поэтому таблица
+ * не создает нагрузки на сборщик мусора, сколько бы элементов в ней
+ * ни было. Ключ 0 зарезервирован под пустую ячейку (упакованное игровое
+ * поле не может быть равно 0).
+ */
+public class OffHeapHashTable {
+
+	/** Объем памяти на одну ячейку таблицы: ключ и значение. */
+	public static final int BYTES_PER_SLOT = Long.BYTES + Integer.BYTES;
+
+	/** Двоичный логарифм количества ячеек в одном буфере. */
+	private static final int CHUNK_BITS = 24;
+
+	/** Маска индекса ячейки внутри буфера. */
+	private static final long CHUNK_MASK = (1L << CHUNK_BITS) - 1;
+
+	/** Минимальное количество ячеек таблицы. */
+	private static final int MIN_CAPACITY = 4;
+
+	/** Значение, возвращаемое при отсутствии ключа. */
+	public static final int NO_VALUE = -1;
+
+	/** Буферы с ключами. */
+	private final LongBuffer[] keys;
+
+	/** Буферы со значениями. */
+	private final IntBuffer[] values;
+
+	/** Количество ячеек таблицы (степень двойки). */
+	private final long capacity;
+
+	/** Маска индекса ячейки. */
+	private final long mask;
+
+	/** Максимальное количество элементов. */
+	private final long maxSize;
+
+	/** Текущее количество элементов. */
+	private long size = 0;
+
+	/**
+	 * Конструктор, размещающий таблицу в прямых буферах.
+	 * Входной параметр:
+	 * @param memoryBudget - бюджет памяти в байтах.
+	 * Если бюджет слишком мал или память не удалось выделить, будет
+	 * выброшено исключение IllegalArgumentException.
+	 */
+	public OffHeapHashTable(long memoryBudget) throws IllegalArgumentException {
+		this(memoryBudget, false);
+	}
+
+	/**
+	 * Конструктор.
+	 * Входные параметры:
+	 * @param memoryBudget - бюджет памяти в байтах;
+	 * @param isFileBacked - true - таблица отображается на временный файл
+	 *                       (может быть больше -XX:MaxDirectMemorySize,
+	 *                       но вытесняется на диск);
+	 *                       false - таблица размещается в прямых буферах.
+	 * Если бюджет слишком мал или память не удалось выделить, будет
+	 * выброшено исключение IllegalArgumentException.
+	 */
+	public OffHeapHashTable(long memoryBudget, boolean isFileBacked)
+			throws IllegalArgumentException {
+		if (memoryBudget < BYTES_PER_SLOT * MIN_CAPACITY) {
+			throw new IllegalArgumentException("In OffHeapHashTable(long, "
+					+ "boolean): memory budget is too small.\n");
+		}
+
+		this.capacity = Long.highestOneBit(memoryBudget / BYTES_PER_SLOT);
+		this.mask = this.capacity - 1;
+
+		/** Таблица заполняется не более чем на три четверти. */
+		this.maxSize = this.capacity - (this.capacity >>> 2);
+
+		int chunkSlots = (int) Math.min(this.capacity, 1L << CHUNK_BITS);
+		int chunksAmount = (int) (this.capacity / chunkSlots);
+
+		ByteBuffer[][] chunks = OffHeapMemory.allocate(chunksAmount,
+				new int[] {chunkSlots * Long.BYTES, chunkSlots * Integer.BYTES},
+				isFileBacked);
+
+		this.keys = new LongBuffer[chunksAmount];
+		this.values = new IntBuffer[chunksAmount];
+
+		for (int i = 0; i < chunksAmount; i++) {
+			this.keys[i] = chunks[0][i].asLongBuffer();
+			this.values[i] = chunks[1][i].asIntBuffer();
+		}
+	}
+
+	/**
+	 * Метод вычисляет начальный индекс ячейки для ключа.
+	 * Ключ перемешивается, чтобы близкие ключи не попадали в соседние ячейки.
+	 */
+	private long indexOf(long key) {
+		long hash = key * 0x9E3779B97F4A7C15L;
+
+		return (hash ^ (hash >>> 32)) & this.mask;
+	}
+
+	/** Метод возвращает ключ, хранящийся в ячейке с заданным индексом. */
+	private long getKey(long index) {
+		return this.keys[(int) (index >>> CHUNK_BITS)]
+				.get((int) (index & CHUNK_MASK));
+	}
+
+	/**
+	 * Метод ищет ячейку с заданным ключом или первую пустую ячейку
+	 * на пути поиска.
+	 */
+	private long find(long key) {
+		long index = indexOf(key);
+
+		while (true) {
+			long current = getKey(index);
+
+			if ((current == key) || (current == 0)) {
+				return index;
+			}
+
+			index = (index + 1) & this.mask;
+		}
+	}
+
+	/**
+	 * Метод возвращает значение, соответствующее ключу.
+	 * Входной параметр:
+	 * @param key - ключ (не 0).
+	 * Возвращает:
+	 * @return значение или NO_VALUE, если ключа нет в таблице.
+	 */
+	public int get(long key) {
+		long index = find(key);
+
+		if (getKey(index) == 0) {
+			return NO_VALUE;
+		}
+
+		return this.values[(int) (index >>> CHUNK_BITS)]
+				.get((int) (index & CHUNK_MASK));
+	}
+
+	/**
+	 * Метод проверяет наличие ключа в таблице.
+	 * Входной параметр:
+	 * @param key - ключ (не 0).
+	 * Возвращает:
+	 * @return true - ключ есть в таблице;
+	 *         false - ключа нет.
+	 */
+	public boolean containsKey(long key) {
+		return getKey(find(key)) != 0;
+	}
+
+	/**
+	 * Метод добавляет ключ со значением в таблицу или заменяет значение
+	 * уже имеющегося ключа.
+	 * Входные параметры:
+	 * @param key - ключ (не 0);
+	 * @param value - значение.
+	 * Возвращает:
+	 * @return true - ключ добавлен;
+	 *         false - ключ уже был в таблице, значение заменено.
+	 * Если бюджет памяти исчерпан, будет выброшено исключение.
+	 */
+	public boolean put(long key, int value)
+			throws IllegalArgumentException, IllegalStateException {
+		if (key == 0) {
+			throw new IllegalArgumentException("In put(long, int): "
+					+ "key 0 is reserved.\n");
+		}
+
+		long index = find(key);
+		int chunk = (int) (index >>> CHUNK_BITS);
+		int offset = (int) (index & CHUNK_MASK);
+		boolean isNew = (this.keys[chunk].get(offset) == 0);
+
+		if (isNew) {
+			insertKey(chunk, offset, key);
+		}
+
+		this.values[chunk].put(offset, value);
+
+		return isNew;
+	}
+
+	/**
+	 * Метод добавляет пару ключ-значение, только если ключа еще нет
+	 * в таблице. В отличие от пары вызовов containsKey и put, таблица
+	 * просматривается один раз.
+	 * Входные параметры:
+	 * @param key - ключ (не 0);
+	 * @param value - значение.
+	 * Возвращает:
+	 * @return true - ключ добавлен;
+	 *         false - ключ уже был в таблице, значение не изменено.
+	 * Если бюджет памяти исчерпан, будет выброшено исключение.
+	 */
+	public boolean putIfAbsent(long key, int value)
+			throws IllegalArgumentException, IllegalStateException {
+		if (key == 0) {
+			throw new IllegalArgumentException("In putIfAbsent(long, int): "
+					+ "key 0 is reserved.\n");
+		}
+
+		long index = find(key);
+		int chunk = (int) (index >>> CHUNK_BITS);
+		int offset = (int) (index & CHUNK_MASK);
+
+		if (this.keys[chunk].get(offset) != 0) {
+			return false;
+		}
+
+		insertKey(chunk, offset, key);
+		this.values[chunk].put(offset, value);
+
+		return true;
+	}
+
+	/**
+	 * Метод добавляет пару ключ-значение или уменьшает значение уже
+	 * записанного ключа за один просмотр таблицы.
+	 * Входные параметры:
+	 * @param key - ключ (не 0);
+	 * @param value - значение.
+	 * Возвращает:
+	 * @return true - ключ добавлен или значение уменьшено;
+	 *         false - записанное значение не больше заданного.
+	 * Если бюджет памяти исчерпан, будет выброшено исключение.
+	 */
+	public boolean putIfLess(long key, int value)
+			throws IllegalArgumentException, IllegalStateException {
+		if (key == 0) {
+			throw new IllegalArgumentException("In putIfLess(long, int): "
+					+ "key 0 is reserved.\n");
+		}
+
+		long index = find(key);
+		int chunk = (int) (index >>> CHUNK_BITS);
+		int offset = (int) (index & CHUNK_MASK);
+
+		if (this.keys[chunk].get(offset) == 0) {
+			insertKey(chunk, offset, key);
+		}
+		else if (this.values[chunk].get(offset) <= value) {
+			return false;
+		}
+
+		this.values[chunk].put(offset, value);
+
+		return true;
+	}
+
+	/**
+	 * Метод занимает свободную ячейку таблицы ключом.
+	 * Если бюджет памяти исчерпан, будет выброшено исключение.
+	 */
+	private void insertKey(int chunk, int offset, long key)
+			throws IllegalStateException {
+		if (this.size >= this.maxSize) {
+			throw new IllegalStateException("In put(long, int): "
+					+ "memory budget is exhausted.\n");
+		}
+
+		this.keys[chunk].put(offset, key);
+		this.size++;
+	}
+
+	/** Метод удаляет все элементы таблицы. */
+	public void clear() {
+		for (int i = 0; i < this.keys.length; i++) {
+			for (int j = 0; j < this.keys[i].capacity(); j++) {
+				this.keys[i].put(j, 0);
+			}
+		}
+
+		this.size = 0;
+	}
+
+	/**
+	 * Геттер, возвращающий количество элементов таблицы.
+	 * Возвращает:
+	 * @return количество элементов.
+	 */
+	public long size() {
+		return this.size;
+	}
+
+	/**
+	 * Геттер, возвращающий максимальное количество элементов таблицы.
+	 * Возвращает:
+	 * @return максимальное количество элементов.
+	 */
+	public long getMaxSize() {
+		return this.maxSize;
+	}
+}
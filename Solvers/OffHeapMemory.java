@@ -0,0 +1,212 @@
+/**
+ * OffHeapMemory.java
+ * Copyright (C) 2020 Roman S <romanstrah@mail.ru>
+ * 
+ * TheFifteenPuzzleSolver is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * TheFifteenPuzzleSolver is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License along
+ * with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package Solvers;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Выделение памяти вне кучи Java для таблиц OffHeapHashTable
+ * и OffHeapNodeStore.
+ * По умолчанию память выделяется прямыми буферами
+ * (ByteBuffer.allocateDirect). Их общий объем ограничен ключом
+ * -XX:MaxDirectMemorySize, который по умолчанию равен -Xmx. Если прямой
+ * памяти не хватает, уже выделенные буферы освобождаются и выбрасывается
+ * исключение IllegalArgumentException.
+ * По запросу вызывающего буферы отображаются на временный файл
+ * (FileChannel.map), который сразу удаляется. Такая память не учитывается
+ * этим ограничением и может быть больше кучи, но страницы хранятся
+ * в страничном кэше и при нехватке памяти записываются на диск, поэтому
+ * во временном каталоге должно быть достаточно места.
+ */
+final class OffHeapMemory {
+
+	/**
+	 * Метод sun.misc.Unsafe.invokeCleaner, немедленно освобождающий прямой
+	 * буфер (null - недоступен, буфер освобождается сборщиком мусора).
+	 */
+	private static final Method INVOKE_CLEANER;
+
+	/** Экземпляр sun.misc.Unsafe для вызова INVOKE_CLEANER. */
+	private static final Object UNSAFE;
+
+	static {
+		Method invokeCleaner = null;
+		Object unsafe = null;
+
+		try {
+			Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+			Field field = unsafeClass.getDeclaredField("theUnsafe");
+
+			field.setAccessible(true);
+			unsafe = field.get(null);
+			invokeCleaner = unsafeClass.getMethod("invokeCleaner",
+					ByteBuffer.class);
+		}
+		catch (ReflectiveOperationException | RuntimeException exception) {
+			invokeCleaner = null;
+			unsafe = null;
+		}
+
+		INVOKE_CLEANER = invokeCleaner;
+		UNSAFE = unsafe;
+	}
+
+	private OffHeapMemory() {}
+
+	/**
+	 * Метод выделяет группы буферов вне кучи Java, заполненные нулями.
+	 * Входные параметры:
+	 * @param chunksAmount - количество буферов в каждой группе;
+	 * @param chunkBytes - размер одного буфера каждой группы в байтах;
+	 * @param isFileBacked - true - буферы отображаются на временный файл;
+	 *                       false - выделяются прямые буферы.
+	 * Возвращает:
+	 * @return группы буферов с порядком байтов платформы.
+	 * Если память не удалось выделить, будет выброшено исключение
+	 * IllegalArgumentException.
+	 */
+	static ByteBuffer[][] allocate(int chunksAmount, int[] chunkBytes,
+			boolean isFileBacked) throws IllegalArgumentException {
+		return isFileBacked ? map(chunksAmount, chunkBytes)
+				: allocateDirect(chunksAmount, chunkBytes);
+	}
+
+	/**
+	 * Метод выделяет прямые буферы. Если памяти не хватает, уже выделенные
+	 * буферы освобождаются.
+	 */
+	private static ByteBuffer[][] allocateDirect(int chunksAmount,
+			int[] chunkBytes) throws IllegalArgumentException {
+		ByteBuffer[][] groups = new ByteBuffer[chunkBytes.length][];
+
+		try {
+			for (int i = 0; i < chunkBytes.length; i++) {
+				groups[i] = new ByteBuffer[chunksAmount];
+
+				for (int j = 0; j < chunksAmount; j++) {
+					groups[i][j] = ByteBuffer.allocateDirect(chunkBytes[i])
+							.order(ByteOrder.nativeOrder());
+				}
+			}
+		}
+		catch (OutOfMemoryError error) {
+			release(groups);
+
+			throw new IllegalArgumentException("In allocate(int, int[], "
+					+ "boolean): direct memory budget can not be allocated ("
+					+ error.getMessage() + "). Increase"
+					+ " -XX:MaxDirectMemorySize, decrease the budget or use"
+					+ " file-backed memory.\n");
+		}
+
+		return groups;
+	}
+
+	/**
+	 * Метод отображает буферы на временный файл: группы располагаются
+	 * в файле одна за другой.
+	 */
+	private static ByteBuffer[][] map(int chunksAmount, int[] chunkBytes)
+			throws IllegalArgumentException {
+		ByteBuffer[][] groups = new ByteBuffer[chunkBytes.length][];
+		Path file = null;
+
+		try {
+			file = Files.createTempFile("TheFifteenPuzzleSolver", ".bin");
+
+			/** Отображение остается действительным после закрытия канала. */
+			try (FileChannel channel = FileChannel.open(file,
+					StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+				long position = 0;
+
+				for (int i = 0; i < chunkBytes.length; i++) {
+					groups[i] = new ByteBuffer[chunksAmount];
+
+					for (int j = 0; j < chunksAmount; j++) {
+						groups[i][j] = channel.map(
+								FileChannel.MapMode.READ_WRITE, position,
+								chunkBytes[i]).order(ByteOrder.nativeOrder());
+						position += chunkBytes[i];
+					}
+				}
+			}
+		}
+		catch (IOException exception) {
+			throw new IllegalArgumentException("In allocate(int, int[], "
+					+ "boolean): file-backed memory budget can not be mapped ("
+					+ exception.getMessage() + ").\n");
+		}
+		finally {
+			delete(file);
+		}
+
+		return groups;
+	}
+
+	/**
+	 * Метод немедленно освобождает выделенные прямые буферы, не дожидаясь
+	 * сборщика мусора (если sun.misc.Unsafe недоступен, буферы только
+	 * становятся недостижимыми).
+	 */
+	private static void release(ByteBuffer[][] groups) {
+		for (ByteBuffer[] group : groups) {
+			if (group == null) {
+				continue;
+			}
+
+			for (int i = 0; i < group.length; i++) {
+				if ((group[i] != null) && (INVOKE_CLEANER != null)) {
+					try {
+						INVOKE_CLEANER.invoke(UNSAFE, group[i]);
+					}
+					catch (ReflectiveOperationException exception) {
+						/** Буфер будет освобожден сборщиком мусора. */
+					}
+				}
+
+				group[i] = null;
+			}
+		}
+	}
+
+	/**
+	 * Метод удаляет временный файл. Если файл нельзя удалить, пока он
+	 * отображен (Windows), он удаляется при завершении программы.
+	 */
+	private static void delete(Path file) {
+		if (file == null) {
+			return;
+		}
+
+		try {
+			Files.deleteIfExists(file);
+		}
+		catch (IOException exception) {
+			file.toFile().deleteOnExit();
+		}
+	}
+}
@@ -0,0 +1,175 @@
+/**
+ * OffHeapNodeStore.java
+ * Copyright (C) 2020 Roman S <romanstrah@mail.ru>
+ * 
+ * TheFifteenPuzzleSolver is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * TheFifteenPuzzleSolver is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License along
+ * with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package Solvers;
+
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.nio.IntBuffer;
+
+/**
+ * Хранилище раскрытых узлов дерева поиска вне кучи Java. Для каждого
+ * узла хранится ключ его состояния (упакованное игровое поле или ключ
+ * Зобриста, см. OffHeapVisitedSet) и индекс родительского узла. Решатель
+ * заменяет ссылки потомков на родительские состояния индексами узлов,
+ * поэтому раскрытые состояния не удерживаются в куче цепочками ссылок
+ * getParent(), а путь восстанавливается по ключам.
+ */
+public class OffHeapNodeStore {
+
+	/** Объем памяти на один узел: ключ и индекс родителя. */
+	public static final int BYTES_PER_NODE = Long.BYTES + Integer.BYTES;
+
+	/** Индекс родителя корневого узла. */
+	public static final int NO_PARENT = -1;
+
+	/** Двоичный логарифм количества узлов в одном буфере. */
+	private static final int CHUNK_BITS = 24;
+
+	/** Маска индекса узла внутри буфера. */
+	private static final int CHUNK_MASK = (1 << CHUNK_BITS) - 1;
+
+	/** Буферы с ключами. */
+	private final LongBuffer[] keys;
+
+	/** Буферы с индексами родителей. */
+	private final IntBuffer[] parents;
+
+	/** Максимальное количество узлов. */
+	private final int maxSize;
+
+	/** Текущее количество узлов. */
+	private int size = 0;
+
+	/**
+	 * Конструктор, размещающий узлы в прямых буферах.
+	 * Входной параметр:
+	 * @param memoryBudget - бюджет памяти в байтах.
+	 * Если бюджет слишком мал или память не удалось выделить, будет
+	 * выброшено исключение IllegalArgumentException.
+	 */
+	public OffHeapNodeStore(long memoryBudget) throws IllegalArgumentException {
+		this(memoryBudget, false);
+	}
+
+	/**
+	 * Конструктор.
+	 * Входные параметры:
+	 * @param memoryBudget - бюджет памяти в байтах;
+	 * @param isFileBacked - true - узлы отображаются на временный файл;
+	 *                       false - узлы размещаются в прямых буферах.
+	 * Если бюджет слишком мал или память не удалось выделить, будет
+	 * выброшено исключение IllegalArgumentException.
+	 */
+	public OffHeapNodeStore(long memoryBudget, boolean isFileBacked)
+			throws IllegalArgumentException {
+		if (memoryBudget < BYTES_PER_NODE) {
+			throw new IllegalArgumentException("In OffHeapNodeStore(long, "
+					+ "boolean): memory budget is too small.\n");
+		}
+
+		long nodesAmount = Math.min(memoryBudget / BYTES_PER_NODE,
+				Integer.MAX_VALUE);
+		int chunkNodes = (int) Math.min(nodesAmount, 1 << CHUNK_BITS);
+		int chunksAmount = (int) (nodesAmount / chunkNodes);
+
+		/** Все буферы одного размера, остаток бюджета не используется. */
+		this.maxSize = chunksAmount * chunkNodes;
+
+		ByteBuffer[][] chunks = OffHeapMemory.allocate(chunksAmount,
+				new int[] {chunkNodes * Long.BYTES, chunkNodes * Integer.BYTES},
+				isFileBacked);
+
+		this.keys = new LongBuffer[chunksAmount];
+		this.parents = new IntBuffer[chunksAmount];
+
+		for (int i = 0; i < chunksAmount; i++) {
+			this.keys[i] = chunks[0][i].asLongBuffer();
+			this.parents[i] = chunks[1][i].asIntBuffer();
+		}
+	}
+
+	/**
+	 * Метод добавляет узел в хранилище.
+	 * Входные параметры:
+	 * @param key - ключ состояния;
+	 * @param parentIndex - индекс родительского узла или NO_PARENT.
+	 * Возвращает:
+	 * @return индекс добавленного узла.
+	 * Если бюджет памяти исчерпан, будет выброшено исключение.
+	 */
+	public int add(long key, int parentIndex) throws IllegalStateException {
+		if (this.size >= this.maxSize) {
+			throw new IllegalStateException("In add(long, int): "
+					+ "memory budget is exhausted.\n");
+		}
+
+		int index = this.size++;
+
+		this.keys[index >>> CHUNK_BITS].put(index & CHUNK_MASK, key);
+		this.parents[index >>> CHUNK_BITS].put(index & CHUNK_MASK,
+				parentIndex);
+
+		return index;
+	}
+
+	/**
+	 * Геттер, возвращающий ключ состояния узла.
+	 * Входной параметр:
+	 * @param index - индекс узла.
+	 * Возвращает:
+	 * @return ключ состояния.
+	 */
+	public long getKey(int index) {
+		return this.keys[index >>> CHUNK_BITS].get(index & CHUNK_MASK);
+	}
+
+	/**
+	 * Геттер, возвращающий индекс родительского узла.
+	 * Входной параметр:
+	 * @param index - индекс узла.
+	 * Возвращает:
+	 * @return индекс родителя или NO_PARENT.
+	 */
+	public int getParent(int index) {
+		return this.parents[index >>> CHUNK_BITS].get(index & CHUNK_MASK);
+	}
+
+	/** Метод удаляет все узлы из хранилища. */
+	public void clear() {
+		this.size = 0;
+	}
+
+	/**
+	 * Геттер, возвращающий количество узлов.
+	 * Возвращает:
+	 * @return количество узлов.
+	 */
+	public int size() {
+		return this.size;
+	}
+
+	/**
+	 * Геттер, возвращающий максимальное количество узлов.
+	 * Возвращает:
+	 * @return максимальное количество узлов.
+	 */
+	public int getMaxSize() {
+		return this.maxSize;
+	}
+}
@@ -0,0 +1,141 @@
+/**
+ * OffHeapVisitedSet.java
+ * Copyright (C) 2020 Roman S <romanstrah@mail.ru>
+ *
+ * TheFifteenPuzzleSolver is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * TheFifteenPuzzleSolver is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package Solvers;
+
+import States.State;
+import States.GameFieldState;
+import Heuristics.BatchHeuristic;
+
+/**
+ * Множество посещенных состояний, хранящее упакованные игровые поля вне
+ * кучи Java. Вместе с каждым полем хранится его расстояние от начального
+ * состояния. Подключается к решателю вместо HashVisitedSet через
+ * конструктор AbstractSolver(VisitedSet). Поддерживаются состояния класса
+ * GameFieldState. Поля не более чем из 16 ячеек хранятся точно, для
+ * больших полей хранится 64-битный ключ Зобриста (вероятность коллизии
+ * пренебрежимо мала даже для сотен миллионов состояний).
+ */
+public class OffHeapVisitedSet implements VisitedSet {
+
+	/** Максимальное количество ячеек в упакованном игровом поле. */
+	private static final int MAX_PACKED_SIZE =
+			Long.SIZE / BatchHeuristic.BITS_PER_CELL;
+
+	private OffHeapHashTable table;
+
+	/**
+	 * Конструктор, размещающий множество в прямых буферах.
+	 * Входной параметр:
+	 * @param memoryBudget - бюджет памяти в байтах.
+	 */
+	public OffHeapVisitedSet(long memoryBudget)
+			throws IllegalArgumentException {
+		this(memoryBudget, false);
+	}
+
+	/**
+	 * Конструктор.
+	 * Входные параметры:
+	 * @param memoryBudget - бюджет памяти в байтах;
+	 * @param isFileBacked - true - множество отображается на временный
+	 *                       файл (см. OffHeapHashTable);
+	 *                       false - размещается в прямых буферах.
+	 */
+	public OffHeapVisitedSet(long memoryBudget, boolean isFileBacked)
+			throws IllegalArgumentException {
+		this.table = new OffHeapHashTable(memoryBudget, isFileBacked);
+	}
+
+	/**
+	 * Метод вычисляет ключ состояния в хэш-таблице.
+	 * Входной параметр:
+	 * @param state - состояние класса GameFieldState.
+	 * Возвращает:
+	 * @return упакованное игровое поле или ключ Зобриста (не 0).
+	 */
+	static long keyOf(State state) {
+		GameFieldState gameFieldState = (GameFieldState) state;
+
+		if (gameFieldState.getSize() <= MAX_PACKED_SIZE) {
+			return gameFieldState.getPackedGameField();
+		}
+
+		long key = gameFieldState.getZobristKey();
+
+		return (key == 0) ? 1 : key;
+	}
+
+	/**
+	 * Метод добавляет состояние в множество за один просмотр таблицы.
+	 * Входной параметр:
+	 * @param state - состояние класса GameFieldState.
+	 * Возвращает:
+	 * @return true - состояние добавлено;
+	 *         false - состояние уже было в множестве.
+	 * Если бюджет памяти исчерпан, будет выброшено исключение
+	 * IllegalStateException.
+	 */
+	@Override
+	public boolean add(State state) throws IllegalStateException {
+		return this.table.putIfAbsent(keyOf(state), state.getDistance());
+	}
+
+	/**
+	 * Метод добавляет состояние или уменьшает записанное расстояние
+	 * за один просмотр таблицы.
+	 * Входной параметр:
+	 * @param state - состояние класса GameFieldState.
+	 * Возвращает:
+	 * @return true - состояние добавлено или расстояние уменьшено;
+	 *         false - записанное расстояние не больше.
+	 * Если бюджет памяти исчерпан, будет выброшено исключение
+	 * IllegalStateException.
+	 */
+	@Override
+	public boolean addIfShorter(State state) throws IllegalStateException {
+		return this.table.putIfLess(keyOf(state), state.getDistance());
+	}
+
+	@Override
+	public boolean contains(State state) {
+		return this.table.containsKey(keyOf(state));
+	}
+
+	/**
+	 * Метод возвращает расстояние, с которым состояние было добавлено.
+	 * Входной параметр:
+	 * @param state - состояние класса GameFieldState.
+	 * Возвращает:
+	 * @return расстояние или OffHeapHashTable.NO_VALUE, если состояния
+	 * нет в множестве.
+	 */
+	public int getDistance(State state) {
+		return this.table.get(keyOf(state));
+	}
+
+	@Override
+	public long size() {
+		return this.table.size();
+	}
+
+	@Override
+	public void clear() {
+		this.table.clear();
+	}
+}
@@ -0,0 +1,236 @@
+/**
+ * ParallelIdaSolver.java
+ * Copyright (C) 2020 Roman S <romanstrah@mail.ru>
+ *
+ * TheFifteenPuzzleSolver is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * TheFifteenPuzzleSolver is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package Solvers;
+
+import States.State;
+import java.util.List;
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.Collections;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Параллельный поиск IDA* (поиск в глубину с итеративным увеличением
+ * границы оценки расстояние + эвристика).
+ * На каждой итерации дерево поиска делится на поддеревья, которые
+ * выполняются в пуле ForkJoinPool с перехватом работы: задача делится
+ * на подзадачи по дочерним состояниям, пока до границы остается много
+ * ходов и в очереди потока мало задач. Общих открытого и закрытого списков
+ * нет; потоки разделяют только найденное решение и минимальную оценку
+ * для следующей границы (атомарные переменные).
+ * Оценки распространяются между родителем и потомками (BPMX), поэтому
+ * эвристика может быть несогласованной.
+ * Решение оптимально, если эвристика допустима.
+ */
+public class ParallelIdaSolver implements Solver {
+
+	/**
+	 * Минимальное количество ходов до границы, при котором задача
+	 * делится на подзадачи.
+	 */
+	private static final int SPLIT_THRESHOLD = 8;
+
+	/**
+	 * Наибольшее количество задач в очереди потока, при котором задача
+	 * еще делится на подзадачи.
+	 */
+	private static final int MAX_QUEUED_TASKS = 2;
+
+	private ForkJoinPool pool;
+
+	/** Конструктор. Используется общий пул ForkJoinPool. */
+	public ParallelIdaSolver() {
+		this(ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Конструктор.
+	 * Входной параметр:
+	 * @param pool - пул, в котором выполняется поиск.
+	 */
+	public ParallelIdaSolver(ForkJoinPool pool) {
+		this.pool = pool;
+	}
+
+	@Override
+	public Iterable<State> solve(State initialState) {
+		if (!initialState.isSolvable()) {
+			return Collections.emptyList();
+		}
+
+		int bound = initialState.getDistance() + initialState.getHeuristic();
+
+		while (bound != Integer.MAX_VALUE) {
+			Iteration iteration = new Iteration(bound);
+
+			this.pool.invoke(new SearchTask(iteration, initialState));
+
+			State solution = iteration.solution.get();
+
+			if (solution != null) {
+				return findPath(solution, initialState);
+			}
+
+			bound = iteration.nextBound.get();
+		}
+
+		return Collections.emptyList();
+	}
+
+	/**
+	 * Метод, определяющий путь от начального состояния до решения.
+	 * Входные параметры:
+	 * @param state - найденное решение;
+	 * @param initialState - начальное состояние.
+	 * Возвращает:
+	 * @return связный список состояний пути.
+	 */
+	private LinkedList<State> findPath(State state, State initialState) {
+		LinkedList<State> path = new LinkedList<State>();
+
+		for (State currentState = state; currentState != initialState;
+				currentState = currentState.getParent()) {
+			path.addFirst(currentState);
+		}
+		path.addFirst(initialState);
+
+		return path;
+	}
+
+	/** Общие данные одной итерации поиска. */
+	private static class Iteration {
+
+		/** Граница оценки текущей итерации. */
+		private final int bound;
+
+		/** Найденное решение (null, если не найдено). */
+		private final AtomicReference<State> solution =
+				new AtomicReference<State>();
+
+		/** Наименьшая оценка, превысившая границу. */
+		private final AtomicInteger nextBound =
+				new AtomicInteger(Integer.MAX_VALUE);
+
+		private Iteration(int bound) {
+			this.bound = bound;
+		}
+	}
+
+	/** Задача поиска в поддереве с корнем в заданном состоянии. */
+	private static class SearchTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		private final Iteration iteration;
+		private final State root;
+
+		private SearchTask(Iteration iteration, State root) {
+			this.iteration = iteration;
+			this.root = root;
+		}
+
+		@Override
+		protected void compute() {
+
+			/** Решение уже найдено другой задачей: поддерево не делится. */
+			if (this.iteration.solution.get() != null) {
+				return;
+			}
+
+			int score = this.root.getDistance() + this.root.getHeuristic();
+
+			/** Крупное поддерево делится на подзадачи по дочерним состояниям. */
+			if ((this.iteration.bound - score >= SPLIT_THRESHOLD)
+					&& (getSurplusQueuedTaskCount() <= MAX_QUEUED_TASKS)
+					&& !this.root.isSolution()) {
+				List<SearchTask> tasks = new ArrayList<SearchTask>(4);
+				List<State> moves = AbstractSolver.propagatePathmax(this.root);
+
+				if (!isWithinBound(this.root)) {
+					return;
+				}
+
+				for (State move : moves) {
+					if (!move.equals(this.root.getParent())) {
+						tasks.add(new SearchTask(this.iteration, move));
+					}
+				}
+
+				invokeAll(tasks);
+			}
+			else {
+				search(this.root);
+			}
+		}
+
+		/**
+		 * Последовательный поиск в глубину с границей.
+		 * Входной параметр:
+		 * @param state - текущее состояние.
+		 */
+		private void search(State state) {
+			if (this.iteration.solution.get() != null) {
+				return;
+			}
+
+			if (!isWithinBound(state)) {
+				return;
+			}
+
+			if (state.isSolution()) {
+				this.iteration.solution.compareAndSet(null, state);
+				return;
+			}
+
+			List<State> moves = AbstractSolver.propagatePathmax(state);
+
+			/** Оценка могла вырасти от потомков. */
+			if (!isWithinBound(state)) {
+				return;
+			}
+
+			for (State move : moves) {
+				if (!move.equals(state.getParent())) {
+					search(move);
+				}
+			}
+		}
+
+		/**
+		 * Метод проверяет, не превышает ли оценка состояния границу,
+		 * и запоминает превысившую оценку для следующей итерации.
+		 * Входной параметр:
+		 * @param state - проверяемое состояние.
+		 * Возвращает:
+		 * @return true, если оценка не превышает границу.
+		 */
+		private boolean isWithinBound(State state) {
+			int score = state.getDistance() + state.getHeuristic();
+
+			if (score > this.iteration.bound) {
+				this.iteration.nextBound.accumulateAndGet(score, Math::min);
+				return false;
+			}
+
+			return true;
+		}
+	}
+}
@@ -0,0 +1,253 @@
+/**
+ * PathOptimizer.java
+ * Copyright (C) 2020 Roman S <romanstrah@mail.ru>
+ *
+ * TheFifteenPuzzleSolver is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * TheFifteenPuzzleSolver is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package Solvers;
+
+import States.State;
+import java.util.Map;
+import java.util.HashMap;
+import java.util.Set;
+import java.util.HashSet;
+import java.util.List;
+import java.util.ArrayList;
+import java.util.ArrayDeque;
+import java.util.LinkedList;
+
+/**
+ * Решатель, улучшающий путь, найденный другим (не оптимальным) решателем.
+ * Сначала из пути удаляются циклы (повторяющиеся состояния, в том числе
+ * ходы туда и обратно). Затем путь просматривается окнами заданной длины:
+ * для каждого окна ищется кратчайший путь между его концами поиском
+ * в ширину, ограниченным длиной окна, и более короткий участок заменяет
+ * исходный. Проходы повторяются, пока путь укорачивается.
+ */
+public class PathOptimizer implements Solver {
+
+	/** Длина окна по умолчанию (в ходах). */
+	private static final int DEFAULT_WINDOW_LENGTH = 10;
+
+	private Solver solver;
+	private int windowLength;
+
+	/**
+	 * Конструктор.
+	 * Входной параметр:
+	 * @param solver - решатель, путь которого улучшается.
+	 */
+	public PathOptimizer(Solver solver) {
+		this(solver, DEFAULT_WINDOW_LENGTH);
+	}
+
+	/**
+	 * Конструктор.
+	 * Входные параметры:
+	 * @param solver - решатель, путь которого улучшается;
+	 * @param windowLength - длина окна в ходах (не менее 2).
+	 */
+	public PathOptimizer(Solver solver, int windowLength)
+			throws IllegalArgumentException {
+		if (windowLength < 2) {
+			throw new IllegalArgumentException("In PathOptimizer(Solver, int):"
+					+ " window length must be at least 2.\n");
+		}
+
+		this.solver = solver;
+		this.windowLength = windowLength;
+	}
+
+	@Override
+	public Iterable<State> solve(State initialState) {
+		return optimize(this.solver.solve(initialState));
+	}
+
+	/**
+	 * Метод улучшает заданный путь.
+	 * Входной параметр:
+	 * @param path - путь, начиная от корневого состояния.
+	 * Возвращает:
+	 * @return путь не длиннее исходного, с тем же началом и концом.
+	 */
+	public List<State> optimize(Iterable<State> path) {
+		List<State> states = removeLoops(path);
+
+		if (states.isEmpty()) {
+			return states;
+		}
+
+		/**
+		 * Окна имеют смысл только для пути из трех и более состояний, но даже
+		 * короткий путь после удаления циклов связывается заново: у его
+		 * последнего состояния родителем может оставаться удаленный участок.
+		 */
+		while (states.size() >= 3) {
+			int previousSize = states.size();
+			states = removeLoops(resolveWindows(states));
+
+			if (states.size() >= previousSize) {
+				break;
+			}
+		}
+
+		return buildChain(states);
+	}
+
+	/**
+	 * Метод удаляет из пути циклы: при повторном появлении состояния
+	 * участок между его появлениями отбрасывается.
+	 * Входной параметр:
+	 * @param path - путь.
+	 * Возвращает:
+	 * @return путь без повторяющихся состояний.
+	 */
+	private List<State> removeLoops(Iterable<State> path) {
+		List<State> states = new ArrayList<State>();
+		Map<State, Integer> indexes = new HashMap<State, Integer>();
+
+		for (State state : path) {
+			Integer index = indexes.get(state);
+
+			if (index != null) {
+				for (int i = states.size() - 1; i > index; i--) {
+					indexes.remove(states.remove(i));
+				}
+			}
+			else {
+				indexes.put(state, states.size());
+				states.add(state);
+			}
+		}
+
+		return states;
+	}
+
+	/**
+	 * Метод выполняет один проход окнами по пути. Соседние окна
+	 * перекрываются наполовину.
+	 * Входной параметр:
+	 * @param states - путь.
+	 * Возвращает:
+	 * @return путь, в котором участки заменены более короткими.
+	 */
+	private List<State> resolveWindows(List<State> states) {
+		List<State> result = new ArrayList<State>();
+		int step = Math.max(1, this.windowLength / 2);
+		int start = 0;
+
+		result.add(states.get(0));
+
+		while (start < states.size() - 1) {
+			int end = Math.min(start + this.windowLength, states.size() - 1);
+			List<State> segment = findShortestPath(states.get(start),
+					states.get(end), end - start - 1);
+
+			/** Участок сократить не удалось: переносится только шаг окна. */
+			if (segment == null) {
+				int stepEnd = Math.min(start + step, end);
+
+				result.addAll(states.subList(start + 1, stepEnd + 1));
+				start = stepEnd;
+			}
+			else {
+				result.addAll(segment);
+				start = end;
+			}
+		}
+
+		return result;
+	}
+
+	/**
+	 * Поиск в ширину кратчайшего пути между двумя состояниями
+	 * с ограничением длины.
+	 * Входные параметры:
+	 * @param from - начальное состояние;
+	 * @param to - конечное состояние;
+	 * @param maxLength - наибольшая допустимая длина пути в ходах.
+	 * Возвращает:
+	 * @return состояния пути без начального или null, если путь
+	 * не длиннее maxLength не найден.
+	 */
+	private List<State> findShortestPath(State from, State to, int maxLength) {
+		if (maxLength < 1) {
+			return null;
+		}
+
+		Set<State> visited = new HashSet<State>();
+		ArrayDeque<State> queue = new ArrayDeque<State>();
+		ArrayDeque<State> nextQueue = new ArrayDeque<State>();
+
+		visited.add(from);
+		queue.add(from);
+
+		for (int length = 1; (length <= maxLength) && !queue.isEmpty();
+				length++) {
+			while (!queue.isEmpty()) {
+				for (State move : queue.poll().getPossibleMoves()) {
+					if (move.equals(to)) {
+						LinkedList<State> segment = new LinkedList<State>();
+
+						for (State state = move; state != from;
+								state = state.getParent()) {
+							segment.addFirst(state);
+						}
+
+						return segment;
+					}
+
+					if (visited.add(move)) {
+						nextQueue.add(move);
+					}
+				}
+			}
+
+			ArrayDeque<State> temp = queue;
+			queue = nextQueue;
+			nextQueue = temp;
+		}
+
+		return null;
+	}
+
+	/**
+	 * Метод заново связывает состояния пути, чтобы родитель каждого
+	 * состояния и расстояние от корня соответствовали новому пути.
+	 * Входной параметр:
+	 * @param states - путь.
+	 * Возвращает:
+	 * @return путь из состояний, порожденных друг из друга.
+	 */
+	private List<State> buildChain(List<State> states) {
+		List<State> chain = new ArrayList<State>(states.size());
+		State current = states.get(0);
+
+		chain.add(current);
+
+		for (int i = 1; i < states.size(); i++) {
+			for (State move : current.getPossibleMoves()) {
+				if (move.equals(states.get(i))) {
+					current = move;
+					break;
+				}
+			}
+
+			chain.add(current);
+		}
+
+		return chain;
+	}
+}
@@ -0,0 +1,301 @@
+/**
+ * PerimeterSolver.java
+ * Copyright (C) 2020 Roman S <romanstrah@mail.ru>
+ *
+ * TheFifteenPuzzleSolver is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * TheFifteenPuzzleSolver is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package Solvers;
+
+import States.State;
+import States.GameFieldState;
+import Heuristics.BatchHeuristic;
+import java.util.Set;
+import java.util.HashSet;
+import java.util.Queue;
+import java.util.PriorityQueue;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.Collections;
+
+/**
+ * Решатель для множества запросов к одному финальному состоянию (поиск
+ * с периметром). При первом запросе выполняется обратный поиск в ширину
+ * от финального состояния до заданной глубины или до исчерпания бюджета
+ * памяти; найденные игровые поля вместе с точными расстояниями до решения
+ * хранятся вне кучи Java (ключ - упакованное игровое поле) и используются
+ * всеми следующими запросами.
+ * Прямой поиск A* для состояний периметра использует точное расстояние,
+ * для остальных - не менее r + 1, где r - последний полностью построенный
+ * уровень обратного поиска, и останавливается, как только из очереди
+ * извлекается состояние периметра. Остаток пути восстанавливается по
+ * периметру жадно: на каждом шаге выбирается сосед с расстоянием на 1
+ * меньше. Найденный путь кратчайший, если эвристика состояний допустима
+ * и согласована.
+ * Поддерживаются состояния класса GameFieldState не более чем из 16 ячеек
+ * одного размера. Решатель не потокобезопасен.
+ */
+public class PerimeterSolver implements Solver {
+
+	/** Глубина обратного поиска по умолчанию. */
+	private static final int DEFAULT_MAX_DEPTH = 16;
+
+	/** Бюджет памяти периметра по умолчанию (64 МБ). */
+	private static final long DEFAULT_MEMORY_BUDGET = 64L << 20;
+
+	/** Максимальное количество ячеек в упакованном игровом поле. */
+	private static final int MAX_PACKED_SIZE =
+			Long.SIZE / BatchHeuristic.BITS_PER_CELL;
+
+	/** Начальная емкость массива уровня обратного поиска. */
+	private static final int MIN_LEVEL_CAPACITY = 16;
+
+	private int maxDepth;
+	private long memoryBudget;
+
+	/** Периметр: упакованное игровое поле -> расстояние до решения. */
+	private OffHeapHashTable perimeter = null;
+
+	/** Количество ячеек игровых полей периметра. */
+	private int size;
+
+	/** Последний полностью построенный уровень обратного поиска. */
+	private int radius;
+
+	/** Конструктор. */
+	public PerimeterSolver() {
+		this(DEFAULT_MAX_DEPTH, DEFAULT_MEMORY_BUDGET);
+	}
+
+	/**
+	 * Конструктор.
+	 * Входные параметры:
+	 * @param maxDepth - наибольшая глубина обратного поиска;
+	 * @param memoryBudget - бюджет памяти периметра в байтах.
+	 */
+	public PerimeterSolver(int maxDepth, long memoryBudget)
+			throws IllegalArgumentException {
+		if (maxDepth < 0) {
+			throw new IllegalArgumentException("In PerimeterSolver(int, long):"
+					+ " max depth must not be negative.\n");
+		}
+
+		this.maxDepth = maxDepth;
+		this.memoryBudget = memoryBudget;
+	}
+
+	@Override
+	public Iterable<State> solve(State initialState)
+			throws IllegalArgumentException {
+		if (!(initialState instanceof GameFieldState)) {
+			throw new IllegalArgumentException("In solve(State): "
+					+ "only GameFieldState is supported.\n");
+		}
+
+		GameFieldState gameFieldState = (GameFieldState) initialState;
+
+		if (this.perimeter == null) {
+			buildPerimeter(gameFieldState);
+		}
+		else if (gameFieldState.getSize() != this.size) {
+			throw new IllegalArgumentException("In solve(State): "
+					+ "game field size differs from the perimeter one.\n");
+		}
+
+		if (!initialState.isSolvable()) {
+			return Collections.emptyList();
+		}
+
+		Queue<State> openQueue = new PriorityQueue<State>();
+		Set<State> closed = new HashSet<State>();
+
+		raiseToPerimeter(initialState);
+		openQueue.add(initialState);
+
+		while (!openQueue.isEmpty()) {
+			State state = openQueue.poll();
+
+			if (!closed.add(state)) {
+				continue;
+			}
+
+			int distance = this.perimeter.get(keyOf(state));
+
+			if (distance != OffHeapHashTable.NO_VALUE) {
+				return findPath(state, initialState, distance);
+			}
+
+			for (State move : state.getPossibleMoves()) {
+				if (!closed.contains(move)) {
+					raiseToPerimeter(move);
+					openQueue.add(move);
+				}
+			}
+		}
+
+		return Collections.emptyList();
+	}
+
+	/**
+	 * Геттер, возвращающий последний полностью построенный уровень
+	 * обратного поиска.
+	 * Возвращает:
+	 * @return радиус периметра (0, если периметр еще не построен).
+	 */
+	public int getRadius() {
+		return this.radius;
+	}
+
+	/**
+	 * Геттер, возвращающий количество состояний периметра.
+	 * Возвращает:
+	 * @return количество состояний (0, если периметр еще не построен).
+	 */
+	public long getPerimeterSize() {
+		return (this.perimeter == null) ? 0 : this.perimeter.size();
+	}
+
+	/**
+	 * Метод строит периметр обратным поиском в ширину от финального
+	 * состояния. Уровни хранятся в виде массивов упакованных игровых полей.
+	 * Входной параметр:
+	 * @param prototype - состояние, задающее размер игрового поля
+	 * и класс состояний.
+	 */
+	private void buildPerimeter(GameFieldState prototype)
+			throws IllegalArgumentException {
+		if (prototype.getSize() > MAX_PACKED_SIZE) {
+			throw new IllegalArgumentException("In buildPerimeter("
+					+ "GameFieldState): game field is too large to be packed.\n");
+		}
+
+		GameFieldState goal = prototype.derive(null,
+				prototype.getGameFieldSolution());
+		long[] level = { goal.getPackedGameField() };
+		int levelAmount = 1;
+
+		this.perimeter = new OffHeapHashTable(this.memoryBudget);
+		this.size = goal.getSize();
+		this.radius = 0;
+		this.perimeter.put(level[0], 0);
+
+		for (int depth = 1; (depth <= this.maxDepth) && (levelAmount > 0);
+				depth++) {
+			long[] nextLevel = new long[Math.max(MIN_LEVEL_CAPACITY,
+					levelAmount * 2)];
+			int nextLevelAmount = 0;
+			boolean isComplete = true;
+
+			for (int i = 0; (i < levelAmount) && isComplete; i++) {
+				GameFieldState state = goal.derive(null,
+						GameFieldState.unpackGameField(level[i], this.size));
+
+				for (State move : state.getPossibleMoves()) {
+					long key = keyOf(move);
+
+					/** Бюджет памяти исчерпан: уровень остается неполным. */
+					if (this.perimeter.size() >= this.perimeter.getMaxSize()) {
+						if (this.perimeter.containsKey(key)) {
+							continue;
+						}
+
+						isComplete = false;
+						break;
+					}
+
+					/** Таблица просматривается один раз. */
+					if (!this.perimeter.putIfAbsent(key, depth)) {
+						continue;
+					}
+
+					if (nextLevelAmount == nextLevel.length) {
+						nextLevel = Arrays.copyOf(nextLevel,
+								nextLevelAmount * 2);
+					}
+
+					nextLevel[nextLevelAmount++] = key;
+				}
+			}
+
+			if (!isComplete) {
+				break;
+			}
+
+			this.radius = depth;
+			level = nextLevel;
+			levelAmount = nextLevelAmount;
+		}
+	}
+
+	/**
+	 * Метод поднимает эвристическую оценку состояния по периметру: для
+	 * состояния периметра - до точного расстояния, для остальных -
+	 * до радиуса периметра плюс 1.
+	 * Входной параметр:
+	 * @param state - состояние.
+	 */
+	private void raiseToPerimeter(State state) {
+		int distance = this.perimeter.get(keyOf(state));
+
+		state.raiseHeuristic((distance != OffHeapHashTable.NO_VALUE)
+				? distance : this.radius + 1);
+	}
+
+	/**
+	 * Метод, определяющий путь от начального состояния до решения: прямой
+	 * путь до состояния периметра и жадный спуск по периметру.
+	 * Входные параметры:
+	 * @param state - достигнутое состояние периметра;
+	 * @param initialState - начальное состояние;
+	 * @param distance - расстояние от состояния периметра до решения.
+	 * Возвращает:
+	 * @return связный список состояний пути.
+	 */
+	private LinkedList<State> findPath(State state, State initialState,
+			int distance) {
+		LinkedList<State> path = new LinkedList<State>();
+
+		for (State currentState = state; currentState != initialState;
+				currentState = currentState.getParent()) {
+			path.addFirst(currentState);
+		}
+		path.addFirst(initialState);
+
+		State currentState = state;
+
+		for (int k = distance; k > 0; k--) {
+			for (State move : currentState.getPossibleMoves()) {
+				if (this.perimeter.get(keyOf(move)) == k - 1) {
+					currentState = move;
+					break;
+				}
+			}
+
+			path.addLast(currentState);
+		}
+
+		return path;
+	}
+
+	/**
+	 * Метод вычисляет ключ состояния в периметре.
+	 * Входной параметр:
+	 * @param state - состояние класса GameFieldState.
+	 * Возвращает:
+	 * @return упакованное игровое поле.
+	 */
+	private static long keyOf(State state) {
+		return ((GameFieldState) state).getPackedGameField();
+	}
+}
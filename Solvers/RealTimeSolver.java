@@ -0,0 +1,222 @@
+/**
+ * RealTimeSolver.java
+ * Copyright (C) 2020 Roman S <romanstrah@mail.ru>
+ *
+ * TheFifteenPuzzleSolver is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * TheFifteenPuzzleSolver is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package Solvers;
+
+import States.State;
+import java.util.Map;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.Collections;
+
+/**
+ * Решатель реального времени (LRTA* с ограниченным просмотром вперед).
+ * На каждом шаге выполняется поиск в глубину на заданное количество ходов,
+ * но не более заданного количества состояний, после чего совершается один
+ * ход к лучшему соседу. Оценка текущего состояния уточняется и запоминается
+ * в таблице, которая сохраняется между шагами и между решениями, поэтому
+ * повторные решения становятся короче. Найденный путь не обязательно
+ * кратчайший.
+ */
+public class RealTimeSolver implements Solver {
+
+	/** Глубина просмотра вперед по умолчанию. */
+	private static final int DEFAULT_LOOKAHEAD_DEPTH = 3;
+
+	/** Ограничение количества состояний на один шаг по умолчанию. */
+	private static final int DEFAULT_NODE_BUDGET = 1000;
+
+	/** Ограничение количества шагов одного решения по умолчанию. */
+	private static final int DEFAULT_MAX_STEPS = 100000;
+
+	private int lookaheadDepth;
+	private int nodeBudget;
+	private int maxSteps;
+
+	/** Уточненные оценки состояний (ключ - ключ Зобриста состояния). */
+	private Map<Long, Integer> learnedHeuristics;
+
+	/** Количество состояний, сгенерированных на текущем шаге. */
+	private int generatedAmount = 0;
+
+	/** Конструктор. */
+	public RealTimeSolver() {
+		this(DEFAULT_LOOKAHEAD_DEPTH, DEFAULT_NODE_BUDGET, DEFAULT_MAX_STEPS);
+	}
+
+	/**
+	 * Конструктор.
+	 * Входные параметры:
+	 * @param lookaheadDepth - глубина просмотра вперед (не менее 1);
+	 * @param nodeBudget - ограничение количества состояний на один шаг;
+	 * @param maxSteps - ограничение количества шагов одного решения.
+	 */
+	public RealTimeSolver(int lookaheadDepth, int nodeBudget, int maxSteps)
+			throws IllegalArgumentException {
+		if ((lookaheadDepth < 1) || (nodeBudget < 1) || (maxSteps < 1)) {
+			throw new IllegalArgumentException("In RealTimeSolver(int, int, "
+					+ "int): parameters must be positive.\n");
+		}
+
+		this.lookaheadDepth = lookaheadDepth;
+		this.nodeBudget = nodeBudget;
+		this.maxSteps = maxSteps;
+		this.learnedHeuristics = new HashMap<Long, Integer>();
+	}
+
+	/**
+	 * Метод решает задачу, совершая по одному ходу за шаг.
+	 * Входной параметр:
+	 * @param initialState - начальное состояние.
+	 * Возвращает:
+	 * @return пройденный путь или пустой список, если решения нет или
+	 * превышено ограничение количества шагов.
+	 */
+	@Override
+	public Iterable<State> solve(State initialState) {
+		if (!initialState.isSolvable()) {
+			return Collections.emptyList();
+		}
+
+		State state = initialState;
+
+		for (int step = 0; !state.isSolution(); step++) {
+			if (step == this.maxSteps) {
+				return Collections.emptyList();
+			}
+
+			state = nextMove(state);
+		}
+
+		LinkedList<State> path = new LinkedList<State>();
+
+		for (State currentState = state; currentState != initialState;
+				currentState = currentState.getParent()) {
+			path.addFirst(currentState);
+		}
+		path.addFirst(initialState);
+
+		return path;
+	}
+
+	/**
+	 * Метод выбирает следующий ход и уточняет оценку текущего состояния.
+	 * Входной параметр:
+	 * @param state - текущее состояние.
+	 * Возвращает:
+	 * @return состояние после хода (его родитель - текущее состояние).
+	 */
+	public State nextMove(State state) {
+		State bestMove = null;
+		int bestValue = Integer.MAX_VALUE;
+
+		this.generatedAmount = 0;
+
+		for (State move : state.getPossibleMoves()) {
+			this.generatedAmount++;
+
+			int value = 1 + lookahead(move, state, this.lookaheadDepth - 1);
+
+			if (value < bestValue) {
+				bestValue = value;
+				bestMove = move;
+			}
+		}
+
+		if (bestValue > getLearnedHeuristic(state)) {
+			this.learnedHeuristics.put(state.getZobristKey(), bestValue);
+		}
+
+		return bestMove;
+	}
+
+	/**
+	 * Метод оценивает состояние поиском в глубину с ограничением.
+	 * Входные параметры:
+	 * @param state - оцениваемое состояние;
+	 * @param previousState - состояние, из которого был сделан ход
+	 * (ход обратно не рассматривается);
+	 * @param depth - оставшаяся глубина просмотра.
+	 * Возвращает:
+	 * @return оценка расстояния от состояния до решения.
+	 */
+	private int lookahead(State state, State previousState, int depth) {
+		if (state.isSolution()) {
+			return 0;
+		}
+
+		if ((depth == 0) || (this.generatedAmount >= this.nodeBudget)) {
+			return getLearnedHeuristic(state);
+		}
+
+		int bestValue = Integer.MAX_VALUE;
+
+		for (State move : state.getPossibleMoves()) {
+			if (move.equals(previousState)) {
+				continue;
+			}
+
+			this.generatedAmount++;
+			bestValue = Math.min(bestValue, 1 + lookahead(move, state,
+					depth - 1));
+		}
+
+		/** Тупик в пределах просмотра: используется оценка состояния. */
+		if (bestValue == Integer.MAX_VALUE) {
+			return getLearnedHeuristic(state);
+		}
+
+		/**
+		 * Обе оценки не превышают истинного расстояния, поэтому берется
+		 * наибольшая. Без этого уточненные оценки промежуточных состояний
+		 * не учитывались бы, и агент мог бы бесконечно ходить по кругу.
+		 */
+		return Math.max(bestValue, getLearnedHeuristic(state));
+	}
+
+	/**
+	 * Метод возвращает оценку состояния с учетом уточненных ранее.
+	 * Входной параметр:
+	 * @param state - оцениваемое состояние.
+	 * Возвращает:
+	 * @return наибольшая из эвристической и уточненной оценок.
+	 */
+	private int getLearnedHeuristic(State state) {
+		Integer learned = this.learnedHeuristics.get(state.getZobristKey());
+
+		if (learned == null) {
+			return state.getHeuristic();
+		}
+
+		return Math.max(learned, state.getHeuristic());
+	}
+
+	/**
+	 * Геттер, возвращающий количество состояний с уточненной оценкой.
+	 * Возвращает:
+	 * @return размер таблицы уточненных оценок.
+	 */
+	public int getLearnedAmount() {
+		return this.learnedHeuristics.size();
+	}
+
+	/** Метод очищает таблицу уточненных оценок. */
+	public void clearLearned() {
+		this.learnedHeuristics.clear();
+	}
+}
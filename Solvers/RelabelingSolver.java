@@ -0,0 +1,83 @@
+/**
+ * RelabelingSolver.java
+ * Copyright (C) 2020 Roman S <romanstrah@mail.ru>
+ *
+ * TheFifteenPuzzleSolver is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * TheFifteenPuzzleSolver is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package Solvers;
+
+import States.State;
+import States.GameFieldState;
+import States.GoalRelabeling;
+import java.util.LinkedList;
+
+/**
+ * Решатель для произвольного финального состояния.
+ * Начальное состояние переводится в стандартную разметку, задача решается
+ * вложенным решателем (со всеми его таблицами и кэшами), после чего путь
+ * переводится обратно в исходную разметку.
+ */
+public class RelabelingSolver implements Solver {
+	private Solver solver;
+	private GoalRelabeling relabeling;
+
+	/**
+	 * Конструктор.
+	 * Входные параметры:
+	 * @param solver - решатель для стандартного финального состояния;
+	 * @param goalGameField - финальное состояние игрового поля;
+	 * @param dimension - размерность игрового поля.
+	 */
+	public RelabelingSolver(Solver solver, int[] goalGameField, int dimension)
+			throws IllegalArgumentException {
+		this.solver = solver;
+		this.relabeling = new GoalRelabeling(goalGameField, dimension);
+	}
+
+	/**
+	 * Метод решает задачу для заданного финального состояния.
+	 * Входной параметр:
+	 * @param initialState - начальное состояние класса GameFieldState
+	 * в исходной разметке.
+	 * Возвращает:
+	 * @return путь в исходной разметке. Эвристические оценки и проверка
+	 * isSolution() у состояний пути относятся к стандартному финальному
+	 * состоянию, поэтому путь предназначен только для вывода.
+	 */
+	@Override
+	public Iterable<State> solve(State initialState)
+			throws IllegalArgumentException {
+		GameFieldState state = (GameFieldState) initialState;
+
+		if (state.getDimension() != this.relabeling.getDimension()) {
+			throw new IllegalArgumentException("In solve(State): "
+					+ "dimension mismatch.\n");
+		}
+
+		GameFieldState canonicalState = state.derive(null,
+				this.relabeling.toCanonical(state.getGameField()));
+		LinkedList<State> path = new LinkedList<State>();
+		State previousState = null;
+
+		for (State canonicalPathState : this.solver.solve(canonicalState)) {
+			previousState = state.derive(previousState,
+					this.relabeling.fromCanonical(((GameFieldState)
+					canonicalPathState).getGameField()));
+			path.add(previousState);
+		}
+
+		return path;
+	}
+}
@@ -0,0 +1,39 @@
+/**
+ * SearchMonitor.java
+ * Copyright (C) 2020 Roman S <romanstrah@mail.ru>
+ *
+ * TheFifteenPuzzleSolver is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * TheFifteenPuzzleSolver is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package Solvers;
+
+import States.State;
+
+/**
+ * Интерфейс наблюдателя за поиском. Вызывается решателем перед раскрытием
+ * каждого состояния и позволяет прервать поиск.
+ */
+public interface SearchMonitor {
+
+	/**
+	 * Метод вызывается перед раскрытием очередного состояния.
+	 * Входные параметры:
+	 * @param state - раскрываемое состояние;
+	 * @param expandedAmount - количество уже раскрытых состояний.
+	 * Возвращает:
+	 * @return true - продолжить поиск;
+	 *         false - прервать поиск.
+	 */
+	public boolean onExpand(State state, long expandedAmount);
+}
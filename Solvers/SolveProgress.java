@@ -0,0 +1,60 @@
+/**
+ * SolveProgress.java
+ * Copyright (C) 2020 Roman S <romanstrah@mail.ru>
+ *
+ * TheFifteenPuzzleSolver is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * TheFifteenPuzzleSolver is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package Solvers;
+
+/** Класс, описывающий ход выполнения поиска. */
+public class SolveProgress {
+
+	/** Количество раскрытых состояний. */
+	private final long expandedAmount;
+
+	/**
+	 * Наибольшая оценка (расстояние + эвристика) среди раскрытых состояний.
+	 * Для HeuristicSolver - нижняя граница длины решения.
+	 */
+	private final int bestScore;
+
+	/** Время, прошедшее с начала поиска, в миллисекундах. */
+	private final long elapsedMillis;
+
+	public SolveProgress(long expandedAmount, int bestScore,
+			long elapsedMillis) {
+		this.expandedAmount = expandedAmount;
+		this.bestScore = bestScore;
+		this.elapsedMillis = elapsedMillis;
+	}
+
+	public long getExpandedAmount() {
+		return this.expandedAmount;
+	}
+
+	public int getBestScore() {
+		return this.bestScore;
+	}
+
+	public long getElapsedMillis() {
+		return this.elapsedMillis;
+	}
+
+	@Override
+	public String toString() {
+		return "Expanded: " + this.expandedAmount + ", best score: "
+				+ this.bestScore + ", elapsed: " + this.elapsedMillis + " ms";
+	}
+}
@@ -0,0 +1,73 @@
+/**
+ * VisitedSet.java
+ * Copyright (C) 2020 Roman S <romanstrah@mail.ru>
+ * 
+ * TheFifteenPuzzleSolver is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * TheFifteenPuzzleSolver is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License along
+ * with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package Solvers;
+
+import States.State;
+
+/**
+ * Множество посещенных состояний, используемое решателями на основе
+ * AbstractSolver. Содержит только операции, нужные поиску, поэтому его
+ * можно хранить как в куче Java (HashVisitedSet), так и вне ее
+ * (OffHeapVisitedSet).
+ */
+public interface VisitedSet {
+
+	/**
+	 * Метод добавляет состояние в множество.
+	 * Входной параметр:
+	 * @param state - состояние.
+	 * Возвращает:
+	 * @return true - состояние добавлено;
+	 *         false - состояние уже было в множестве.
+	 */
+	public boolean add(State state);
+
+	/**
+	 * Метод добавляет состояние в множество или, если состояние уже
+	 * есть в нем, уменьшает записанное расстояние от начального состояния.
+	 * Позволяет заново раскрыть состояние, до которого найден более
+	 * короткий путь (при несогласованной эвристике).
+	 * Входной параметр:
+	 * @param state - состояние.
+	 * Возвращает:
+	 * @return true - состояние добавлено или расстояние уменьшено;
+	 *         false - состояние уже было в множестве с тем же или меньшим
+	 *         расстоянием.
+	 */
+	public boolean addIfShorter(State state);
+
+	/**
+	 * Метод проверяет, есть ли состояние в множестве.
+	 * Входной параметр:
+	 * @param state - состояние.
+	 * Возвращает:
+	 * @return true - состояние есть в множестве.
+	 */
+	public boolean contains(State state);
+
+	/**
+	 * Геттер, возвращающий количество состояний в множестве.
+	 * Возвращает:
+	 * @return количество состояний.
+	 */
+	public long size();
+
+	/** Метод удаляет все состояния из множества. */
+	public void clear();
+}
@@ -22,6 +22,18 @@ public abstract class AbstractState implements State, Comparable<State> {
 	private State parent = null;
 	private int distance = 0;
 
+	/**
+	 * Нижняя граница эвристической оценки, полученная от соседних
+	 * состояний (BPMX).
+	 */
+	private int heuristicLowerBound = 0;
+
+	/**
+	 * Индекс родительского узла во внешнем хранилище узлов решателя
+	 * (-1 - родитель не сохранен).
+	 */
+	private int parentNodeIndex = -1;
+
 	public AbstractState(State parent) {
 		this.parent = parent;
 		if (parent != null) {
@@ -34,11 +46,58 @@ public abstract class AbstractState implements State, Comparable<State> {
 		return this.parent;
 	}
 
+	/**
+	 * Метод заменяет ссылку на родительское состояние индексом родителя
+	 * во внешнем хранилище узлов, чтобы раскрытые состояния не удерживались
+	 * в памяти. Расстояние от начального состояния сохраняется.
+	 * Входной параметр:
+	 * @param parentNodeIndex - индекс родительского узла.
+	 */
+	@Override
+	public void detachParent(int parentNodeIndex) {
+		this.parent = null;
+		this.parentNodeIndex = parentNodeIndex;
+	}
+
+	/**
+	 * Геттер, возвращающий индекс родительского узла во внешнем хранилище.
+	 * Возвращает:
+	 * @return индекс или -1, если ссылка на родителя не заменялась.
+	 */
+	@Override
+	public int getParentNodeIndex() {
+		return this.parentNodeIndex;
+	}
+
 	@Override
 	public int getDistance() {
 		return this.distance;
 	}
 
+	/**
+	 * Метод поднимает эвристическую оценку состояния до заданной нижней
+	 * границы (если оценка меньше). Используется для распространения
+	 * оценок между родителем и потомками при несогласованной эвристике.
+	 * Оценку нельзя изменять, пока состояние находится в очереди
+	 * с приоритетом.
+	 * Входной параметр:
+	 * @param lowerBound - нижняя граница расстояния до решения.
+	 */
+	@Override
+	public void raiseHeuristic(int lowerBound) {
+		this.heuristicLowerBound = Math.max(this.heuristicLowerBound,
+				lowerBound);
+	}
+
+	/**
+	 * Геттер, возвращающий нижнюю границу эвристической оценки.
+	 * Возвращает:
+	 * @return нижняя граница, заданная методом raiseHeuristic.
+	 */
+	protected int getHeuristicLowerBound() {
+		return this.heuristicLowerBound;
+	}
+
 	@Override
 	public int compareTo(State inputState) {
 		Integer currentScore = this.getDistance() + this.getHeuristic();
@@ -0,0 +1,726 @@
+/**
+ * GameFieldState.java
+ * Copyright (C) 2020 Roman S <romanstrah@mail.ru>
+ *
+ * TheFifteenPuzzleSolver is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * TheFifteenPuzzleSolver is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package States;
+
+import Heuristics.Heuristic;
+import Heuristics.BatchHeuristic;
+import java.util.Random;
+import java.util.Arrays;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Класс состояния пятнашек с квадратным игровым полем произвольной
+ * размерности (3 на 3; 4 на 4; и т. д.).
+ * Эвристическая оценка задается подключаемым объектом Heuristic и
+ * пересчитывается инкрементально при каждом ходе.
+ */
+public class GameFieldState extends AbstractState {
+
+	/**
+	 * Количество псевдослучайных перестановок элементов игрового поля,
+	 * при его инициализации.
+	 */
+	private static final int RANDOM_SWAPS_AMOUNT = 20;
+
+	/** Изменения индекса строки для четырех возможных ходов. */
+	private static final int[] ROW_DELTAS = {1, -1, 0, 0};
+
+	/** Изменения индекса столбца для четырех возможных ходов. */
+	private static final int[] COLUMN_DELTAS = {0, 0, 1, -1};
+
+	/** Начальное значение генератора случайных чисел для ключей Зобриста. */
+	private static final long ZOBRIST_SEED = 0x5DEECE66DL;
+
+	/**
+	 * Таблицы случайных чисел для хэширования Зобриста (ключ - количество
+	 * ячеек). Число для ячейки со значением v на позиции i хранится
+	 * в элементе [v * size + i].
+	 */
+	private static final Map<Integer, long[]> ZOBRIST_TABLES =
+			new ConcurrentHashMap<Integer, long[]>();
+
+	/** Размерность игрового поля. */
+	private final int dimension;
+
+	/** Количество ячеек в игровом поле (размер массива игрового поля). */
+	private final int size;
+
+	/** Эвристика, используемая для оценки состояния. */
+	private final Heuristic heuristic;
+
+	/** Упакованное значение эвристической оценки текущего состояния. */
+	private long heuristicData;
+
+	/** Таблица случайных чисел для хэширования Зобриста. */
+	private final long[] zobristTable;
+
+	/**
+	 * 64-битный ключ Зобриста: XOR случайных чисел всех непустых ячеек
+	 * на их позициях. При ходе обновляется двумя операциями XOR.
+	 */
+	private long zobristKey;
+
+	/** Массив, хранящий текущее состояние игрового поля. */
+	private int[] gameField;
+
+	/**
+	 * Индекс пустой ячейки на игровом поле.
+	 * Пустой ячейкой считается элемент игрового поля, чье значение равно 0.
+	 */
+	private int emptyCellIndex = 0;
+
+	/**
+	 * Конструктор, задающий массив с текущим состоянием игрового поля,
+	 * псевдослучайным образом.
+	 * Входные параметры:
+	 * @param parent - родительское состояние;
+	 * @param dimension - размерность игрового поля;
+	 * @param heuristic - эвристика для оценки состояния.
+	 * Если текущее состояние первое, то передать null.
+	 */
+	public GameFieldState(State parent, int dimension, Heuristic heuristic)
+			throws IndexOutOfBoundsException {
+		super(parent);
+
+		this.dimension = dimension;
+		this.size = dimension * dimension;
+		this.heuristic = heuristic;
+		this.zobristTable = getZobristTable(this.size);
+
+		Random random = new Random();
+		this.gameField = new int[this.size];
+
+		/** Заполнение игрового поля начальными значениями. */
+		for (int i = 0; i < this.size; i++) {
+			this.gameField[i] = i;
+		}
+
+		this.zobristKey = computeZobristKey();
+
+		/** Перемешивание элементов игрового поля. */
+		try {
+			for (int i = 0; i < RANDOM_SWAPS_AMOUNT; i++) {
+				swap(random.nextInt(this.size), random.nextInt(this.size));
+			}
+		}
+		catch (IndexOutOfBoundsException exception) {
+			throw new IndexOutOfBoundsException("In GameFieldState(State, int,"
+					+ " Heuristic) -> shuffling elements error:\n"
+					+ exception.getMessage());
+		}
+
+		/** Определение индекса пустой ячейки. */
+		for (int i = 0; i < this.size; i++) {
+			if (this.gameField[i] == 0) {
+				this.emptyCellIndex = i;
+				break;
+			}
+		}
+
+		this.heuristicData = heuristic.initialize(this.gameField, dimension);
+	}
+
+	/**
+	 * Конструктор, использующий переданный массив, для инициализации
+	 * текущего состояния игрового поля.
+	 * Входные параметры:
+	 * @param parent - родительское состояние;
+	 * @param dimension - размерность игрового поля;
+	 * @param initGameField - массив с состоянием игрового поля;
+	 * @param heuristic - эвристика для оценки состояния.
+	 * Если текущее состояние первое, то передать null.
+	 */
+	public GameFieldState(State parent, int dimension, int[] initGameField,
+			Heuristic heuristic) throws IllegalArgumentException {
+		super(parent);
+
+		this.dimension = dimension;
+		this.size = dimension * dimension;
+		this.heuristic = heuristic;
+		this.zobristTable = getZobristTable(this.size);
+
+		try {
+			this.setGameField(initGameField);
+		}
+		catch (IllegalArgumentException exception) {
+			throw new IllegalArgumentException("In GameFieldState(State, int,"
+					+ " int[], Heuristic) -> incorrect third parameter:\n"
+					+ exception.getMessage());
+		}
+	}
+
+	/**
+	 * Конструктор, создающий состояние, получаемое из родительского
+	 * перемещением одной ячейки на место пустой.
+	 * Эвристическая оценка пересчитывается инкрементально.
+	 * Входные параметры:
+	 * @param parent - родительское состояние;
+	 * @param cellIndex - индекс ячейки, соседней с пустой.
+	 */
+	protected GameFieldState(GameFieldState parent, int cellIndex) {
+		super(parent);
+
+		this.dimension = parent.dimension;
+		this.size = parent.size;
+		this.heuristic = parent.heuristic;
+		this.zobristTable = parent.zobristTable;
+		this.gameField = parent.gameField.clone();
+
+		int tile = this.gameField[cellIndex];
+
+		this.gameField[parent.emptyCellIndex] = tile;
+		this.gameField[cellIndex] = 0;
+		this.emptyCellIndex = cellIndex;
+		this.heuristicData = this.heuristic.update(parent.heuristicData, tile,
+				cellIndex, parent.emptyCellIndex, this.dimension);
+		this.zobristKey = parent.zobristKey
+				^ this.zobristTable[tile * this.size + cellIndex]
+				^ this.zobristTable[tile * this.size + parent.emptyCellIndex];
+	}
+
+	/**
+	 * Метод возвращает таблицу случайных чисел для хэширования Зобриста,
+	 * при необходимости создавая ее. Таблица одна для всех состояний
+	 * с одинаковым количеством ячеек.
+	 * Входной параметр:
+	 * @param size - количество ячеек в игровом поле.
+	 * Возвращает:
+	 * @return таблица случайных чисел.
+	 */
+	private static long[] getZobristTable(int size) {
+		return ZOBRIST_TABLES.computeIfAbsent(size, key -> {
+			Random random = new Random(ZOBRIST_SEED + key);
+			long[] table = new long[key * key];
+
+			for (int i = 0; i < table.length; i++) {
+				table[i] = random.nextLong();
+			}
+
+			return table;
+		});
+	}
+
+	/**
+	 * Метод полностью вычисляет ключ Зобриста текущего игрового поля.
+	 * Возвращает:
+	 * @return ключ Зобриста.
+	 */
+	private long computeZobristKey() {
+		long key = 0;
+
+		for (int i = 0; i < this.size; i++) {
+			if (this.gameField[i] != 0) {
+				key ^= this.zobristTable[this.gameField[i] * this.size + i];
+			}
+		}
+
+		return key;
+	}
+
+	/**
+	 * Метод создает состояние, получаемое из текущего перемещением
+	 * одной ячейки на место пустой. Наследники переопределяют его,
+	 * чтобы дочерние состояния были того же класса.
+	 * Входной параметр:
+	 * @param cellIndex - индекс ячейки, соседней с пустой.
+	 * Возвращает:
+	 * @return новое состояние.
+	 */
+	protected GameFieldState move(int cellIndex) {
+		return new GameFieldState(this, cellIndex);
+	}
+
+	/**
+	 * Метод создает состояние того же класса и с той же эвристикой,
+	 * но с другим игровым полем.
+	 * Входные параметры:
+	 * @param parent - родительское состояние;
+	 * @param initGameField - массив с состоянием игрового поля.
+	 * Возвращает:
+	 * @return новое состояние.
+	 */
+	public GameFieldState derive(State parent, int[] initGameField)
+			throws IllegalArgumentException {
+		return new GameFieldState(parent, this.dimension, initGameField,
+				this.heuristic);
+	}
+
+	/**
+	 * Метод, определяющий принадлежность индекса ячейки,
+	 * диапазону допустимых в текущем игровом поле.
+	 * Входной параметр:
+	 * @param cellIndex - индекс ячейки, подлежащий проверке.
+	 * Возвращает:
+	 * @return true - индекс входит в диапазон допустимых;
+	 *         false - не входит.
+	 */
+	private boolean isValidCellIndex(int cellIndex) {
+		return (cellIndex >= 0) && (cellIndex < this.size);
+	}
+
+	/**
+	 * Метод, меняющий местами 2 любые ячейки в текущем игровом поле.
+	 * Входные параметры:
+	 * @param cellIndexA - индекс первой ячейки;
+	 * @param cellIndexB - индекс второй ячейки.
+	 * В случае некорректных входных параметров будет выброшено соответствующее
+	 * исключение.
+	 */
+	public void swap(int cellIndexA, int cellIndexB)
+			throws IndexOutOfBoundsException {
+
+		/** Проверка корректности входных параметров. */
+		if (!isValidCellIndex(cellIndexA) || !isValidCellIndex(cellIndexB)) {
+			throw new IndexOutOfBoundsException("In swap(int, int): "
+					+ "incorrect input index(es).\n");
+		}
+
+		if (cellIndexA != cellIndexB) {
+			int temp = this.gameField[cellIndexA];
+			this.gameField[cellIndexA] = this.gameField[cellIndexB];
+			this.gameField[cellIndexB] = temp;
+
+			/** Переопределение индекса пустой ячейки, при необходимости. */
+			if (this.emptyCellIndex == cellIndexA) {
+				this.emptyCellIndex = cellIndexB;
+			}
+			else if (this.emptyCellIndex == cellIndexB) {
+				this.emptyCellIndex = cellIndexA;
+			}
+
+			/**
+			 * Произвольная перестановка не является ходом,
+			 * поэтому оценка вычисляется заново.
+			 */
+			this.heuristicData = this.heuristic.initialize(this.gameField,
+					this.dimension);
+			this.zobristKey = computeZobristKey();
+		}
+	}
+
+	/**
+	 * Геттер, возвращающий размерность игрового поля.
+	 * Возвращает:
+	 * @return размерность игрового поля.
+	 */
+	public int getDimension() {
+		return this.dimension;
+	}
+
+	/**
+	 * Геттер, возвращающий количество ячеек в текущем игровом поле.
+	 * Возвращает:
+	 * @return размер массива игрового поля.
+	 */
+	public int getSize() {
+		return this.size;
+	}
+
+	/**
+	 * Геттер, возвращающий количество псевдослучайных перестановок
+	 * элементов игрового поля, при его инициализации.
+	 * Возвращает:
+	 * @return количество псевдослучайных перестановок.
+	 */
+	public int getRandomSwapsAmount() {
+		return RANDOM_SWAPS_AMOUNT;
+	}
+
+	/**
+	 * Геттер, возвращающий эвристику, используемую для оценки состояния.
+	 * Возвращает:
+	 * @return эвристика.
+	 */
+	public Heuristic getHeuristicFunction() {
+		return this.heuristic;
+	}
+
+	/**
+	 * Геттер, возвращающий массив с состоянием игрового поля,
+	 * при котором игра считается завершенной: ячейки по порядку,
+	 * пустая ячейка - последняя.
+	 * Возвращает:
+	 * @return массив с состоянием игрового поля, при котором игра
+	 * считается завершенной.
+	 */
+	public int[] getGameFieldSolution() {
+		int[] solution = new int[this.size];
+
+		for (int i = 0; i < this.size - 1; i++) {
+			solution[i] = i + 1;
+		}
+
+		return solution;
+	}
+
+	/**
+	 * Геттер, возвращающий 64-битный ключ Зобриста текущего игрового поля.
+	 * Возвращает:
+	 * @return ключ Зобриста.
+	 */
+	@Override
+	public long getZobristKey() {
+		return this.zobristKey;
+	}
+
+	/**
+	 * Геттер, возвращающий массив с текущим состоянием игрового поля.
+	 * Возвращает:
+	 * @return массив с текущим состоянием игрового поля.
+	 */
+	public int[] getGameField() {
+		return this.gameField;
+	}
+
+	/**
+	 * Геттер, возвращающий индекс пустой ячейки на игровом поле.
+	 * Возвращает:
+	 * @return индекс пустой ячейки на игровом поле.
+	 */
+	public int getEmptyCellIndex() {
+		return this.emptyCellIndex;
+	}
+
+	/**
+	 * Метод упаковывает текущее состояние игрового поля в число типа long
+	 * (4 бита на ячейку, ячейка с индексом 0 - в младших битах).
+	 * Возвращает:
+	 * @return упакованное игровое поле.
+	 * Для полей, содержащих более 16 ячеек, будет выброшено исключение.
+	 */
+	public long getPackedGameField() throws UnsupportedOperationException {
+		if (this.size > Long.SIZE / BatchHeuristic.BITS_PER_CELL) {
+			throw new UnsupportedOperationException("In getPackedGameField():"
+					+ " game field is too large to be packed.\n");
+		}
+
+		long packed = 0;
+
+		for (int i = 0; i < this.size; i++) {
+			packed |= ((long) this.gameField[i])
+					<< (i * BatchHeuristic.BITS_PER_CELL);
+		}
+
+		return packed;
+	}
+
+	/**
+	 * Метод распаковывает игровое поле из числа типа long.
+	 * Входные параметры:
+	 * @param packed - упакованное игровое поле;
+	 * @param size - количество ячеек в игровом поле.
+	 * Возвращает:
+	 * @return массив с состоянием игрового поля.
+	 */
+	public static int[] unpackGameField(long packed, int size) {
+		int[] gameField = new int[size];
+		long mask = (1L << BatchHeuristic.BITS_PER_CELL) - 1;
+
+		for (int i = 0; i < size; i++) {
+			gameField[i] = (int) ((packed >>> (i * BatchHeuristic.BITS_PER_CELL))
+					& mask);
+		}
+
+		return gameField;
+	}
+
+	/**
+	 * Метод упаковывает игровые поля набора состояний (например, всех
+	 * дочерних состояний) для пакетной оценки методами BatchHeuristic.
+	 * Входные параметры:
+	 * @param states - набор состояний класса GameFieldState;
+	 * @param boards - массив для записи упакованных полей.
+	 * Возвращает:
+	 * @return количество упакованных полей.
+	 */
+	public static int packGameFields(Iterable<State> states, long[] boards)
+			throws IndexOutOfBoundsException {
+		int count = 0;
+
+		for (State state : states) {
+			if (count == boards.length) {
+				throw new IndexOutOfBoundsException("In packGameFields"
+						+ "(Iterable<State>, long[]): output array is too"
+						+ " small.\n");
+			}
+
+			boards[count++] = ((GameFieldState) state).getPackedGameField();
+		}
+
+		return count;
+	}
+
+	/**
+	 * Сеттер, заменяющий массив с текущим состоянием игрового поля.
+	 * Входной параметр:
+	 * @param newGameField - массив с новым состоянием игрового поля.
+	 * Входной массив будет скопирован. В случае некорректного входного
+	 * параметра будет выброшено соответствующее исключение.
+	 * Индекс пустой ячейки будет определен автоматически.
+	 */
+	public void setGameField(int[] newGameField)
+			throws IllegalArgumentException {
+
+		/** Проверка корректности входного параметра. */
+		if ((newGameField == null) || (newGameField.length != this.size)) {
+			throw new IllegalArgumentException("In setGameField(int[]): "
+					+ "incorrect input array.\n");
+		}
+
+		/**
+		 * Проверка на то, что во входном массиве нет повторяющихся
+		 * и/или неверных элементов.
+		 */
+		int[] tempBuffer = new int[this.size];
+
+		for (int i = 0; i < this.size; i++) {
+			if ((newGameField[i] >= 0) && (newGameField[i] < this.size)
+					&& (tempBuffer[newGameField[i]] == 0)) {
+				tempBuffer[newGameField[i]] += 1;
+			}
+			else {
+				throw new IllegalArgumentException("In setGameField(int[]): "
+						+ "incorrect input array values.\n");
+			}
+		}
+
+		/** Копирование входного массива. */
+		this.gameField = newGameField.clone();
+
+		/** Определение индекса пустой ячейки. */
+		for (int i = 0; i < this.size; i++) {
+			if (this.gameField[i] == 0) {
+				this.emptyCellIndex = i;
+				break;
+			}
+		}
+
+		this.heuristicData = this.heuristic.initialize(this.gameField,
+				this.dimension);
+		this.zobristKey = computeZobristKey();
+	}
+
+	/**
+	 * Метод возвращает набор состояний, которые можно получить из текущего
+	 * за один ход.
+	 * Возвращает:
+	 * @return набор состояний.
+	 */
+	@Override
+	public Iterable<State> getPossibleMoves() {
+		ArrayList<State> moves = new ArrayList<State>(ROW_DELTAS.length);
+
+		/**
+		 * Для более удобных манипуляций с индексом пустой ячейки
+		 * преобразуем его в соответствующие координаты.
+		 */
+		int emptyCellRow = this.emptyCellIndex / this.dimension;
+		int emptyCellColumn = this.emptyCellIndex % this.dimension;
+
+		/**
+		 * Пытаемся совершить ход по всем четырем возможным направлениям.
+		 * Ходы, выводящие за границы игрового поля, пропускаются.
+		 */
+		for (int i = 0; i < ROW_DELTAS.length; i++) {
+			int row = emptyCellRow + ROW_DELTAS[i];
+			int column = emptyCellColumn + COLUMN_DELTAS[i];
+
+			if ((row >= 0) && (row < this.dimension)
+					&& (column >= 0) && (column < this.dimension)) {
+				moves.add(move(row * this.dimension + column));
+			}
+		}
+
+		return moves;
+	}
+
+	/**
+	 * Метод проверяет, совпадает ли текущее состояние игрового поля
+	 * с финальным.
+	 * Возвращает:
+	 * @return true - совпадает;
+	 *         false - не совпадает.
+	 */
+	@Override
+	public boolean isSolution() {
+		if (this.emptyCellIndex != this.size - 1) {
+			return false;
+		}
+
+		for (int i = 0; i < this.size - 1; i++) {
+			if (this.gameField[i] != i + 1) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	/**
+	 * Метод проверяет, имеет ли текущее состояние игрового поля решение.
+	 * Для нечетной размерности количество инверсий должно быть четным,
+	 * для четной - четной должна быть сумма количества инверсий и номера
+	 * строки, содержащей пустую ячейку.
+	 * Возвращает:
+	 * @return true - имеет;
+	 *         false - не имеет.
+	 */
+	@Override
+	public boolean isSolvable() {
+
+		/** Если текущее состояние уже является решением, возвращаем true. */
+		if (this.isSolution()) {
+			return true;
+		}
+
+		/**
+		 * Количество пар элементов массива игрового поля,
+		 * в которых первый элемент с большим значением
+		 * (сравнение ведется относительно правильного порядка элементов)
+		 * предшествует элементу с меньшим.
+		 */
+		int sum = 0;
+
+		for (int i = 0; i < (this.size - 1); i++) {
+			for (int j = i + 1; j < this.size; j++) {
+				if ((this.gameField[i] > this.gameField[j])
+						&& (j != this.emptyCellIndex)) {
+					sum++;
+				}
+			}
+		}
+
+		if (this.dimension % 2 != 0) {
+			return (sum % 2 == 0);
+		}
+
+		/** Номер строки, содержащей пустую ячейку (номер = индекс + 1). */
+		int emptyCellRowNumber = this.emptyCellIndex / this.dimension + 1;
+
+		return ((sum + emptyCellRowNumber) % 2 == 0);
+	}
+
+	/**
+	 * Метод возвращает эвристическую оценку текущего состояния игрового
+	 * поля, вычисленную подключенной эвристикой, с учетом нижней границы,
+	 * заданной методом raiseHeuristic.
+	 * Возвращает:
+	 * @return эвристическая оценка состояния.
+	 */
+	@Override
+	public int getHeuristic() {
+		return Math.max(this.heuristic.evaluate(this.heuristicData),
+				this.getHeuristicLowerBound());
+	}
+
+	/**
+	 * Метод создает строку, содержащую разделительную линию игрового поля.
+	 * Возвращает:
+	 * @return строку, содержащую разделительную линию.
+	 */
+	private String gameFieldHorizontalLineToString() {
+		StringBuffer buffer = new StringBuffer();
+
+		for (int i = 0; i < this.dimension; i++) {
+			buffer.append("----");
+		}
+		buffer.append("-\n");
+
+		return buffer.toString();
+	}
+
+	/**
+	 * Метод создает строку, содержащую текущее состояние игрового поля
+	 * в виде таблицы.
+	 * Возвращает:
+	 * @return строку, содержащую текущее состояние игрового поля.
+	 */
+	private String gameFieldToString() {
+		StringBuffer buffer = new StringBuffer();
+
+		/** Добавление верхней линии таблицы. */
+		buffer.append(gameFieldHorizontalLineToString());
+
+		for (int i = 0; i < this.size; i++) {
+
+			/** Добавление текущей ячейки игрового поля. */
+			buffer.append("| " + this.gameField[i] + " ");
+
+			/**
+			 * Переход на следующую строку таблицы и
+			 * добавление разделительной линии.
+			 */
+			if ((i + 1) % this.dimension == 0) {
+				buffer.append("|\n" + gameFieldHorizontalLineToString());
+			}
+		}
+
+		return buffer.toString();
+	}
+
+	@Override
+	public String toString() {
+		StringBuffer buffer = new StringBuffer();
+
+		buffer.append(this.getClass().getName() + ":\n");
+		buffer.append("Empty cell\'s id: " + this.emptyCellIndex + "\n");
+		buffer.append("Game field:\n");
+		buffer.append(gameFieldToString());
+
+		return buffer.toString();
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+
+		/** Объект равен самому себе. */
+		if (this == obj) {
+			return true;
+		}
+
+		/**
+		 * Проверка на то, что:
+		 * - сравниваем два объекта одного класса.
+		 * - сравниваем не с null.
+		 */
+		if (obj == null || (this.getClass() != obj.getClass())) {
+			return false;
+		}
+
+		GameFieldState temp = (GameFieldState) obj;
+
+		/** Различные ключи Зобриста означают различные игровые поля. */
+		if (this.zobristKey != temp.zobristKey) {
+			return false;
+		}
+
+		return Arrays.equals(this.gameField, temp.getGameField());
+	}
+
+	/**
+	 * Хэш-код вычисляется из ключа Зобриста за O(1) и равномерно
+	 * распределен независимо от размера игрового поля.
+	 */
+	@Override
+	public int hashCode() {
+		return (int) (this.zobristKey ^ (this.zobristKey >>> 32));
+	}
+}
@@ -0,0 +1,204 @@
+/**
+ * GoalRelabeling.java
+ * Copyright (C) 2020 Roman S <romanstrah@mail.ru>
+ *
+ * TheFifteenPuzzleSolver is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * TheFifteenPuzzleSolver is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package States;
+
+/**
+ * Класс, сводящий задачу с произвольным финальным состоянием к задаче со
+ * стандартным финальным состоянием (ячейки по порядку, пустая ячейка -
+ * последняя). Игровое поле поворачивается или отражается так, чтобы пустая
+ * ячейка финального состояния оказалась в правом нижнем углу, после чего
+ * ячейки переименовываются. Повороты и отражения сохраняют соседство ячеек,
+ * поэтому ходы и длины решений не меняются, и все таблицы, построенные для
+ * стандартного финального состояния, подходят для любого другого.
+ * Пустая ячейка финального состояния должна находиться в углу поля.
+ */
+public class GoalRelabeling {
+
+	/** Количество преобразований симметрии квадрата. */
+	private static final int SYMMETRIES_AMOUNT = 8;
+
+	/** Размерность игрового поля. */
+	private final int dimension;
+
+	/**
+	 * Отображение индексов ячеек: ячейка с индексом i переходит
+	 * в ячейку с индексом cellMapping[i].
+	 */
+	private final int[] cellMapping;
+
+	/** Новые значения ячеек: значение v заменяется на labels[v]. */
+	private final int[] labels;
+
+	/** Обратное отображение значений ячеек. */
+	private final int[] inverseLabels;
+
+	/**
+	 * Конструктор.
+	 * Входные параметры:
+	 * @param goalGameField - финальное состояние игрового поля;
+	 * @param dimension - размерность игрового поля.
+	 * В случае некорректного финального состояния будет выброшено
+	 * соответствующее исключение.
+	 */
+	public GoalRelabeling(int[] goalGameField, int dimension)
+			throws IllegalArgumentException {
+		int size = dimension * dimension;
+
+		if ((goalGameField == null) || (goalGameField.length != size)) {
+			throw new IllegalArgumentException("In GoalRelabeling(int[], int):"
+					+ " incorrect goal array.\n");
+		}
+
+		this.dimension = dimension;
+		this.labels = new int[size];
+		this.inverseLabels = new int[size];
+
+		/** Проверка на то, что финальное состояние - перестановка. */
+		boolean[] seen = new boolean[size];
+		int emptyCellIndex = -1;
+
+		for (int i = 0; i < size; i++) {
+			int value = goalGameField[i];
+
+			if ((value < 0) || (value >= size) || seen[value]) {
+				throw new IllegalArgumentException("In GoalRelabeling(int[],"
+						+ " int): incorrect goal array values.\n");
+			}
+
+			seen[value] = true;
+
+			if (value == 0) {
+				emptyCellIndex = i;
+			}
+		}
+
+		/**
+		 * Поиск преобразования симметрии, переводящего пустую ячейку
+		 * в правый нижний угол.
+		 */
+		int[] mapping = null;
+
+		for (int symmetry = 0; symmetry < SYMMETRIES_AMOUNT; symmetry++) {
+			if (transform(emptyCellIndex, symmetry) == size - 1) {
+				mapping = new int[size];
+
+				for (int i = 0; i < size; i++) {
+					mapping[i] = transform(i, symmetry);
+				}
+
+				break;
+			}
+		}
+
+		if (mapping == null) {
+			throw new IllegalArgumentException("In GoalRelabeling(int[], int):"
+					+ " empty cell of the goal must be in a corner.\n");
+		}
+
+		this.cellMapping = mapping;
+
+		/**
+		 * Ячейка финального состояния, переходящая в позицию p,
+		 * получает значение p + 1 стандартного финального состояния.
+		 */
+		for (int i = 0; i < size; i++) {
+			int value = goalGameField[i];
+			int label = (value == 0) ? 0 : mapping[i] + 1;
+
+			this.labels[value] = label;
+			this.inverseLabels[label] = value;
+		}
+	}
+
+	/**
+	 * Метод применяет преобразование симметрии к индексу ячейки.
+	 * Входные параметры:
+	 * @param cellIndex - индекс ячейки;
+	 * @param symmetry - номер преобразования (от 0 до 7).
+	 * Возвращает:
+	 * @return индекс ячейки после преобразования.
+	 */
+	private int transform(int cellIndex, int symmetry) {
+		int last = this.dimension - 1;
+		int row = cellIndex / this.dimension;
+		int column = cellIndex % this.dimension;
+
+		/** Отражение относительно главной диагонали. */
+		if ((symmetry & 1) != 0) {
+			int temp = row;
+			row = column;
+			column = temp;
+		}
+
+		/** Отражение по вертикали. */
+		if ((symmetry & 2) != 0) {
+			row = last - row;
+		}
+
+		/** Отражение по горизонтали. */
+		if ((symmetry & 4) != 0) {
+			column = last - column;
+		}
+
+		return row * this.dimension + column;
+	}
+
+	/**
+	 * Метод переводит игровое поле в стандартную разметку.
+	 * Входной параметр:
+	 * @param gameField - игровое поле в исходной разметке.
+	 * Возвращает:
+	 * @return игровое поле в стандартной разметке.
+	 */
+	public int[] toCanonical(int[] gameField) {
+		int[] result = new int[gameField.length];
+
+		for (int i = 0; i < gameField.length; i++) {
+			result[this.cellMapping[i]] = this.labels[gameField[i]];
+		}
+
+		return result;
+	}
+
+	/**
+	 * Метод переводит игровое поле из стандартной разметки в исходную.
+	 * Входной параметр:
+	 * @param gameField - игровое поле в стандартной разметке.
+	 * Возвращает:
+	 * @return игровое поле в исходной разметке.
+	 */
+	public int[] fromCanonical(int[] gameField) {
+		int[] result = new int[gameField.length];
+
+		for (int i = 0; i < gameField.length; i++) {
+			result[i] = this.inverseLabels[gameField[this.cellMapping[i]]];
+		}
+
+		return result;
+	}
+
+	/**
+	 * Геттер, возвращающий размерность игрового поля.
+	 * Возвращает:
+	 * @return размерность игрового поля.
+	 */
+	public int getDimension() {
+		return this.dimension;
+	}
+}
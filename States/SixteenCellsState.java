@@ -0,0 +1,130 @@
+/**
+ * SixteenCellsState.java
+ * Copyright (C) 2020 Roman S <romanstrah@mail.ru>
+ * 
+ * TheFifteenPuzzleSolver is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * TheFifteenPuzzleSolver is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License along
+ * with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package States;
+
+import Heuristics.Heuristic;
+import Heuristics.WalkingDistanceHeuristic;
+
+/** Класс состояния пятнашек с размерностью поля 4 на 4. */
+public class SixteenCellsState extends GameFieldState {
+
+	/** Размерность игрового поля. */
+	private static final int DIMENSION = 4;
+
+	/**
+	 * Эвристика по умолчанию: "walking distance". Таблица эвристики
+	 * вычисляется один раз, при загрузке класса.
+	 */
+	private static final Heuristic DEFAULT_HEURISTIC =
+			new WalkingDistanceHeuristic(DIMENSION);
+
+	/**
+	 * Конструктор, задающий массив с текущим состоянием игрового поля,
+	 * псевдослучайным образом.
+	 * Входной параметр:
+	 * @param parent - родительское состояние.
+	 * Если текущее состояние первое, то передать null.
+	 */
+	public SixteenCellsState(State parent) throws IndexOutOfBoundsException {
+		super(parent, DIMENSION, DEFAULT_HEURISTIC);
+	}
+
+	/**
+	 * Конструктор, использующий переданный массив, для инициализации
+	 * текущего состояния игрового поля.
+	 * Входные параметры:
+	 * @param parent - родительское состояние;
+	 * @param initGameField - массив с состоянием игрового поля.
+	 * Если текущее состояние первое, то передать null.
+	 */
+	public SixteenCellsState(State parent, int[] initGameField)
+			throws IllegalArgumentException {
+		this(parent, initGameField, DEFAULT_HEURISTIC);
+	}
+
+	/**
+	 * Конструктор, использующий переданный массив, для инициализации
+	 * текущего состояния игрового поля, и заданную эвристику.
+	 * Входные параметры:
+	 * @param parent - родительское состояние;
+	 * @param initGameField - массив с состоянием игрового поля;
+	 * @param heuristic - эвристика для оценки состояния.
+	 * Если текущее состояние первое, то передать null.
+	 */
+	public SixteenCellsState(State parent, int[] initGameField,
+			Heuristic heuristic) throws IllegalArgumentException {
+		super(parent, DIMENSION, initGameField, heuristic);
+	}
+
+	/**
+	 * Конструктор, создающий состояние, получаемое из родительского
+	 * перемещением одной ячейки на место пустой.
+	 * Входные параметры:
+	 * @param parent - родительское состояние;
+	 * @param cellIndex - индекс ячейки, соседней с пустой.
+	 */
+	protected SixteenCellsState(SixteenCellsState parent, int cellIndex) {
+		super(parent, cellIndex);
+	}
+
+	/**
+	 * Метод создает состояние, получаемое из текущего перемещением одной
+	 * ячейки на место пустой.
+	 * Входной параметр:
+	 * @param cellIndex - индекс ячейки, соседней с пустой.
+	 * Возвращает:
+	 * @return новое состояние.
+	 */
+	@Override
+	protected SixteenCellsState move(int cellIndex) {
+		return new SixteenCellsState(this, cellIndex);
+	}
+
+	/**
+	 * Метод создает состояние того же класса и с той же эвристикой,
+	 * но с другим игровым полем.
+	 * Входные параметры:
+	 * @param parent - родительское состояние;
+	 * @param initGameField - массив с состоянием игрового поля.
+	 * Возвращает:
+	 * @return новое состояние.
+	 */
+	@Override
+	public SixteenCellsState derive(State parent, int[] initGameField)
+			throws IllegalArgumentException {
+		return new SixteenCellsState(parent, initGameField,
+				this.getHeuristicFunction());
+	}
+
+	/**
+	 * Метод создает копию текущего игрового состояния.
+	 * Возвращает:
+	 * @return копию текущего игрового состояния.
+	 * Исключение IllegalArgumentException не может быть выброшено на данном
+	 * этапе. В качестве второго параметра передается ранее проверенный массив:
+	 * изменить игровое поле могут только оба конструктора и метод
+	 * setGameField(). Так как происходит копирование уже существующего объекта,
+	 * значит его конструктор уже был вызван, и соответствующее исключение
+	 * было бы выброшено на более раннем этапе. То же касается и setGameField().
+	 */
+	public SixteenCellsState copy() {
+		return new SixteenCellsState(this.getParent(), this.getGameField(),
+				this.getHeuristicFunction());
+	}
+}
@@ -25,4 +25,8 @@ public interface State {
 	public int getHeuristic();
 	public int getDistance();
 	public State getParent();
+	public long getZobristKey();
+	public void raiseHeuristic(int lowerBound);
+	public void detachParent(int parentNodeIndex);
+	public int getParentNodeIndex();
 }